@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools.agent;
+
+import java.io.File;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarFile;
+
+/**
+ * A Java agent that records the implementation method of every lambda and method reference class spun by
+ * {@code LambdaMetafactory} in the {@link LambdaRegistry}, allowing TypeResolver to resolve lambdas without reading
+ * their constant pools. Install via {@code -javaagent:typetools-agent.jar}.
+ *
+ * <p>
+ * Only lambda classes spun after the agent is installed are recorded. TypeResolver falls back to its other lambda
+ * resolution backends for any others.
+ */
+public final class LambdaAgent {
+  static final String REGISTRY_CLASS = "net.jodah.typetools.agent.LambdaRegistry";
+  static final String METAFACTORY_CLASS = "java.lang.invoke.InnerClassLambdaMetafactory";
+
+  private LambdaAgent() {
+  }
+
+  public static void premain(String args, Instrumentation instrumentation) throws Exception {
+    install(instrumentation);
+  }
+
+  public static void agentmain(String args, Instrumentation instrumentation) throws Exception {
+    install(instrumentation);
+  }
+
+  private static void install(Instrumentation instrumentation) throws Exception {
+    // The registry is called from java.base, so it must be loaded by the bootstrap loader
+    File jar = new File(LambdaAgent.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    instrumentation.appendToBootstrapClassLoaderSearch(new JarFile(jar));
+    Class<?> registry = Class.forName(REGISTRY_CLASS, true, null);
+    addReads(instrumentation, Object.class, registry);
+
+    instrumentation.addTransformer(new LambdaMetafactoryTransformer(), true);
+    instrumentation.retransformClasses(Class.forName(METAFACTORY_CLASS, false, null));
+  }
+
+  /**
+   * Makes the module of the {@code source} class read the module of the {@code target} class. Modules are only present
+   * on Java 9 and above, so they are accessed reflectively.
+   */
+  private static void addReads(Instrumentation instrumentation, Class<?> source, Class<?> target) throws Exception {
+    Method getModule;
+    try {
+      getModule = Class.class.getMethod("getModule");
+    } catch (NoSuchMethodException e) {
+      return;
+    }
+
+    Method redefineModule = Instrumentation.class.getMethod("redefineModule", getModule.getReturnType(), Set.class,
+        Map.class, Map.class, Set.class, Map.class);
+    redefineModule.invoke(instrumentation, getModule.invoke(source), Collections.singleton(getModule.invoke(target)),
+        Collections.emptyMap(), Collections.emptyMap(), Collections.emptySet(), Collections.emptyMap());
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools.agent;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Instruments {@code InnerClassLambdaMetafactory.spinInnerClass} so that each spun lambda class is passed to
+ * {@link LambdaRegistry#record(Class, java.lang.invoke.MethodHandleInfo)} along with the metafactory's
+ * {@code implInfo}, which describes the lambda's implementation method.
+ *
+ * <p>
+ * This class is public since, once the agent jar is appended to the bootstrap class path, it is loaded by a different
+ * loader than {@link LambdaAgent}.
+ */
+public final class LambdaMetafactoryTransformer implements ClassFileTransformer {
+  private static final String METAFACTORY = "java/lang/invoke/InnerClassLambdaMetafactory";
+  private static final String REGISTRY = "net/jodah/typetools/agent/LambdaRegistry";
+
+  @Override
+  public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+      ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+    if (!METAFACTORY.equals(className))
+      return null;
+
+    try {
+      ClassReader reader = new ClassReader(classfileBuffer);
+      // Only instructions are inserted, and the stack at each branch target is unchanged, so frames can be kept
+      ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+      reader.accept(new ClassVisitor(Opcodes.ASM9, writer) {
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+            String[] exceptions) {
+          MethodVisitor visitor = super.visitMethod(access, name, descriptor, signature, exceptions);
+          return "spinInnerClass".equals(name) && "()Ljava/lang/Class;".equals(descriptor)
+              ? new SpinInnerClassVisitor(visitor) : visitor;
+        }
+      }, 0);
+      return writer.toByteArray();
+    } catch (Throwable ignore) {
+      // Leave the metafactory uninstrumented rather than break lambda creation
+      return null;
+    }
+  }
+
+  private static final class SpinInnerClassVisitor extends MethodVisitor {
+    SpinInnerClassVisitor(MethodVisitor visitor) {
+      super(Opcodes.ASM9, visitor);
+    }
+
+    @Override
+    public void visitInsn(int opcode) {
+      if (opcode == Opcodes.ARETURN) {
+        // LambdaRegistry.record(innerClass, this.implInfo), leaving innerClass on the stack to be returned
+        super.visitInsn(Opcodes.DUP);
+        super.visitVarInsn(Opcodes.ALOAD, 0);
+        super.visitFieldInsn(Opcodes.GETFIELD, METAFACTORY, "implInfo", "Ljava/lang/invoke/MethodHandleInfo;");
+        super.visitMethodInsn(Opcodes.INVOKESTATIC, REGISTRY, "record",
+            "(Ljava/lang/Class;Ljava/lang/invoke/MethodHandleInfo;)V", false);
+      }
+
+      super.visitInsn(opcode);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools.agent;
+
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Records the implementation method of each lambda class as it is spun. This class is loaded by the bootstrap loader
+ * and is called from {@code java.base}, so it must not itself use lambdas or method references.
+ */
+public final class LambdaRegistry {
+  /** Entries are attached to their lambda class, so they do not keep it from being unloaded */
+  private static final ClassValue<Entry> ENTRIES = new ClassValue<Entry>() {
+    @Override
+    protected Entry computeValue(Class<?> type) {
+      return new Entry();
+    }
+  };
+
+  private static final class Entry {
+    volatile MethodHandleInfo implInfo;
+    volatile Member member;
+  }
+
+  private LambdaRegistry() {
+  }
+
+  /**
+   * Records the {@code implInfo} describing the implementation method of the {@code lambdaClass}. Called by the
+   * instrumented lambda metafactory.
+   */
+  public static void record(Class<?> lambdaClass, MethodHandleInfo implInfo) {
+    ENTRIES.get(lambdaClass).implInfo = implInfo;
+  }
+
+  /**
+   * Returns the method or constructor that the {@code lambdaClass} delegates to, else {@code null} if the class was not
+   * recorded by the agent.
+   */
+  public static Member memberOf(Class<?> lambdaClass) {
+    // Looking up an entry attaches one, so classes that cannot be lambdas, such as JDK classes, are not looked up
+    if (!lambdaClass.isSynthetic())
+      return null;
+
+    Entry entry = ENTRIES.get(lambdaClass);
+    Member member = entry.member;
+    if (member == null) {
+      MethodHandleInfo implInfo = entry.implInfo;
+      if (implInfo == null)
+        return null;
+      entry.member = member = resolve(implInfo);
+    }
+
+    return member;
+  }
+
+  private static Member resolve(MethodHandleInfo implInfo) {
+    Class<?> declaringClass = implInfo.getDeclaringClass();
+    MethodType methodType = implInfo.getMethodType();
+    try {
+      if (implInfo.getReferenceKind() == MethodHandleInfo.REF_newInvokeSpecial)
+        return declaringClass.getDeclaredConstructor(methodType.parameterArray());
+
+      for (Method method : declaringClass.getDeclaredMethods())
+        if (method.getName().equals(implInfo.getName()) && method.getReturnType() == methodType.returnType()
+            && Arrays.equals(method.getParameterTypes(), methodType.parameterArray()))
+          return method;
+    } catch (NoSuchMethodException ignore) {
+    } catch (SecurityException ignore) {
+    }
+
+    return null;
+  }
+}
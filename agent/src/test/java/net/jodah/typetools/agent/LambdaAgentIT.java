@@ -0,0 +1,45 @@
+package net.jodah.typetools.agent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.testng.annotations.Test;
+
+import net.jodah.typetools.TypeResolver;
+
+/**
+ * Runs with the packaged agent installed.
+ */
+@Test
+public class LambdaAgentIT {
+  public void shouldRecordMethodRefs() throws Exception {
+    Function<String, Integer> fn = Integer::parseInt;
+    assertEquals(LambdaRegistry.memberOf(fn.getClass()), Integer.class.getMethod("parseInt", String.class));
+  }
+
+  public void shouldRecordConstructorRefs() throws Exception {
+    Function<String, StringBuilder> fn = StringBuilder::new;
+    assertEquals(LambdaRegistry.memberOf(fn.getClass()), StringBuilder.class.getConstructor(String.class));
+  }
+
+  public void shouldRecordLambdas() {
+    BiFunction<String, Long, Integer> fn = (s, l) -> s.length() + l.intValue();
+    assertEquals(LambdaRegistry.memberOf(fn.getClass()).getDeclaringClass(), LambdaAgentIT.class);
+  }
+
+  public void shouldNotRecordOtherClasses() {
+    assertNull(LambdaRegistry.memberOf(String.class));
+  }
+
+  public void shouldResolveLambdasViaAgent() {
+    Supplier<Double> supplier = () -> 1.0;
+    assertEquals(TypeResolver.resolveRawArguments(Supplier.class, supplier.getClass()),
+        new Class<?>[] { Double.class });
+    assertTrue(TypeResolver.getLambdaIntrospector().startsWith("agent"));
+  }
+}
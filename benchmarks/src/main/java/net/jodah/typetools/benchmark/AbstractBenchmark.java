@@ -0,0 +1,39 @@
+package net.jodah.typetools.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.jodah.typetools.TypeResolver;
+
+/**
+ * Common configuration for the TypeResolver benchmarks. Every benchmark runs with the resolver cache enabled and
+ * disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class AbstractBenchmark {
+  @Param({ "true", "false" })
+  public boolean cache;
+
+  @Setup
+  public void setUpCache() {
+    if (cache)
+      TypeResolver.enableCache();
+    else
+      TypeResolver.disableCache();
+  }
+}
@@ -0,0 +1,32 @@
+package net.jodah.typetools.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the selected benchmarks twice, once single-threaded and once with one thread per available processor, reporting
+ * allocations per operation via the GC profiler. Accepts the same arguments as the JMH command line, e.g. a benchmark
+ * regex.
+ */
+public final class BenchmarkRunner {
+  private BenchmarkRunner() {
+  }
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    Options commandLine = new CommandLineOptions(args);
+    int[] threadCounts = { 1, Runtime.getRuntime().availableProcessors() };
+
+    for (int threads : threadCounts) {
+      Options options = new OptionsBuilder().parent(commandLine)
+          .threads(threads)
+          .addProfiler(GCProfiler.class)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
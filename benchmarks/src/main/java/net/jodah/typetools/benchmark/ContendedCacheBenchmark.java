@@ -0,0 +1,32 @@
+package net.jodah.typetools.benchmark;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Threads;
+
+import net.jodah.typetools.TypeResolver;
+
+/**
+ * Benchmarks cache hits for JDK classes from several threads at once. JDK classes are shared by every caller, and are
+ * cached outside of {@link ClassValue} so that they do not keep typetools' class loader alive.
+ */
+@Threads(8)
+public class ContendedCacheBenchmark extends AbstractBenchmark {
+  @Benchmark
+  public Class<?> resolveRawArgumentJdkClass() {
+    return TypeResolver.resolveRawArgument(Comparable.class, String.class);
+  }
+
+  @Benchmark
+  public Class<?>[] resolveRawArgumentsJdkClass() {
+    return TypeResolver.resolveRawArguments(List.class, ArrayList.class);
+  }
+
+  @Benchmark
+  public Class<?> resolveRawClassJdkClass() {
+    return TypeResolver.resolveRawClass(AbstractList.class.getGenericSuperclass(), ArrayList.class);
+  }
+}
@@ -0,0 +1,120 @@
+package net.jodah.typetools.benchmark;
+
+import java.lang.reflect.Type;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import net.jodah.typetools.TypeResolver;
+
+/**
+ * Benchmarks resolving against a 15 level diamond of interfaces, in which every interface extends both interfaces of
+ * the level below it. Each interface at the bottom level is reachable through 2^15 paths from the leaf class. Without
+ * the cache, each operation builds the leaf's type variable map.
+ */
+public class DiamondInterfaceBenchmark extends AbstractBenchmark {
+  interface Left00<T> {
+  }
+
+  interface Right00<T> {
+  }
+
+  interface Left01<T> extends Left00<T>, Right00<T> {
+  }
+
+  interface Right01<T> extends Left00<T>, Right00<T> {
+  }
+
+  interface Left02<T> extends Left01<T>, Right01<T> {
+  }
+
+  interface Right02<T> extends Left01<T>, Right01<T> {
+  }
+
+  interface Left03<T> extends Left02<T>, Right02<T> {
+  }
+
+  interface Right03<T> extends Left02<T>, Right02<T> {
+  }
+
+  interface Left04<T> extends Left03<T>, Right03<T> {
+  }
+
+  interface Right04<T> extends Left03<T>, Right03<T> {
+  }
+
+  interface Left05<T> extends Left04<T>, Right04<T> {
+  }
+
+  interface Right05<T> extends Left04<T>, Right04<T> {
+  }
+
+  interface Left06<T> extends Left05<T>, Right05<T> {
+  }
+
+  interface Right06<T> extends Left05<T>, Right05<T> {
+  }
+
+  interface Left07<T> extends Left06<T>, Right06<T> {
+  }
+
+  interface Right07<T> extends Left06<T>, Right06<T> {
+  }
+
+  interface Left08<T> extends Left07<T>, Right07<T> {
+  }
+
+  interface Right08<T> extends Left07<T>, Right07<T> {
+  }
+
+  interface Left09<T> extends Left08<T>, Right08<T> {
+  }
+
+  interface Right09<T> extends Left08<T>, Right08<T> {
+  }
+
+  interface Left10<T> extends Left09<T>, Right09<T> {
+  }
+
+  interface Right10<T> extends Left09<T>, Right09<T> {
+  }
+
+  interface Left11<T> extends Left10<T>, Right10<T> {
+  }
+
+  interface Right11<T> extends Left10<T>, Right10<T> {
+  }
+
+  interface Left12<T> extends Left11<T>, Right11<T> {
+  }
+
+  interface Right12<T> extends Left11<T>, Right11<T> {
+  }
+
+  interface Left13<T> extends Left12<T>, Right12<T> {
+  }
+
+  interface Right13<T> extends Left12<T>, Right12<T> {
+  }
+
+  interface Left14<T> extends Left13<T>, Right13<T> {
+  }
+
+  interface Right14<T> extends Left13<T>, Right13<T> {
+  }
+
+  interface Left15<T> extends Left14<T>, Right14<T> {
+  }
+
+  interface Right15<T> extends Left14<T>, Right14<T> {
+  }
+
+  static class Leaf implements Left15<String> {
+  }
+
+  private static final Type BOTTOM_VARIABLE = Right00.class.getTypeParameters()[0];
+
+  @Benchmark
+  public Class<?> resolveRawClassDiamond() {
+    return TypeResolver.resolveRawClass(BOTTOM_VARIABLE, Leaf.class);
+  }
+}
@@ -0,0 +1,125 @@
+package net.jodah.typetools.benchmark;
+
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Types that the benchmarks resolve against. Lambdas and method references are held in static fields so that every
+ * invocation resolves against the same generated class.
+ */
+final class Fixtures {
+  private Fixtures() {
+  }
+
+  // Plain classes
+
+  interface Repository<T, ID extends Serializable> {
+  }
+
+  static class User {
+  }
+
+  static class UserRepository implements Repository<User, Long> {
+  }
+
+  static class StringList extends ArrayList<String> {
+  }
+
+  // Deep hierarchy, with type variables passed through every level
+
+  static class Level0<A, B> {
+    public Map<A, List<B>> index;
+    public Map<List<String>, Map<A, List<Integer>>> mixed;
+
+    public List<A> values() {
+      return null;
+    }
+  }
+
+  static class Level1<A, B> extends Level0<A, B> implements Comparator<B> {
+    @Override
+    public int compare(B o1, B o2) {
+      return 0;
+    }
+  }
+
+  static class Level2<A, B> extends Level1<A, B> {
+  }
+
+  static class Level3<B, A> extends Level2<A, B> {
+  }
+
+  static class Level4<A, B> extends Level3<B, A> {
+  }
+
+  static class Level5<A, B> extends Level4<A, B> {
+  }
+
+  static class Level6<B, A> extends Level5<A, B> {
+  }
+
+  static class Level7<A, B> extends Level6<B, A> {
+  }
+
+  static class Level8<A> extends Level7<A, Integer> {
+  }
+
+  static class Level9 extends Level8<String> {
+  }
+
+  // Self-referential types
+
+  static abstract class Node<N extends Node<N>> implements Comparable<N> {
+    public List<N> children;
+  }
+
+  static class TreeNode extends Node<TreeNode> {
+    @Override
+    public int compareTo(TreeNode o) {
+      return 0;
+    }
+  }
+
+  static abstract class Bounded<E extends Enum<E>, N extends Node<N>> {
+    public E value;
+    public N node;
+  }
+
+  static abstract class UnboundBounded<E extends Enum<E>, N extends Node<N>> extends Bounded<E, N> {
+  }
+
+  // Lambdas and method references
+
+  static final Function<String, Integer> LAMBDA = s -> s.length();
+  static final BiFunction<String, Long, Integer> BI_LAMBDA = (s, l) -> s.length() + l.intValue();
+  static final Function<String, Integer> METHOD_REF = String::length;
+  static final Function<String, StringBuilder> CONSTRUCTOR_REF = StringBuilder::new;
+  static final Supplier<String> SUPPLIER = () -> "supplied";
+
+  // Generic member types
+
+  static final Type DEEP_FIELD_TYPE;
+  static final Type MIXED_FIELD_TYPE;
+  static final Type DEEP_METHOD_RETURN_TYPE;
+  static final Type SELF_REFERENTIAL_FIELD_TYPE;
+  static final Type ENUM_BOUND_FIELD_TYPE;
+
+  static {
+    try {
+      DEEP_FIELD_TYPE = Level0.class.getField("index").getGenericType();
+      MIXED_FIELD_TYPE = Level0.class.getField("mixed").getGenericType();
+      DEEP_METHOD_RETURN_TYPE = Level0.class.getMethod("values").getGenericReturnType();
+      SELF_REFERENTIAL_FIELD_TYPE = Node.class.getField("children").getGenericType();
+      ENUM_BOUND_FIELD_TYPE = Bounded.class.getField("value").getGenericType();
+    } catch (NoSuchFieldException | NoSuchMethodException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+}
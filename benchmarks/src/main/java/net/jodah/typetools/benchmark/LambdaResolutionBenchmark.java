@@ -0,0 +1,52 @@
+package net.jodah.typetools.benchmark;
+
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import net.jodah.typetools.TypeResolver;
+
+/**
+ * Benchmarks lambda resolution for lambda classes whose constant pools differ in size. Capturing lambdas carry a field,
+ * and constant pool entries for it, per captured argument. With the cache disabled, every operation scans the constant
+ * pool.
+ */
+public class LambdaResolutionBenchmark extends AbstractBenchmark {
+  @Param({ "0", "4", "16" })
+  public int capturedArgs;
+
+  private Class<?> lambdaType;
+
+  @Setup
+  public void setUpLambda() {
+    Function<String, Integer> lambda;
+    switch (capturedArgs) {
+      case 0:
+        lambda = s -> s.length();
+        break;
+      case 4:
+        lambda = capture4(1, 2L, "3", 4.0);
+        break;
+      default:
+        lambda = capture16(1, 2L, "3", 4.0, 5, 6L, "7", 8.0, 9, 10L, "11", 12.0, 13, 14L, "15", 16.0);
+    }
+    lambdaType = lambda.getClass();
+  }
+
+  @Benchmark
+  public Class<?>[] resolveRawArguments() {
+    return TypeResolver.resolveRawArguments(Function.class, lambdaType);
+  }
+
+  static Function<String, Integer> capture4(int a, long b, String c, double d) {
+    return s -> s.length() + a + (int) b + c.length() + (int) d;
+  }
+
+  static Function<String, Integer> capture16(int a, long b, String c, double d, int e, long f, String g, double h, int i,
+      long j, String k, double l, int m, long n, String o, double p) {
+    return s -> s.length() + a + (int) b + c.length() + (int) d + e + (int) f + g.length() + (int) h + i + (int) j
+        + k.length() + (int) l + m + (int) n + o.length() + (int) p;
+  }
+}
@@ -0,0 +1,125 @@
+package net.jodah.typetools.benchmark;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.jodah.typetools.ReificationTemplate;
+import net.jodah.typetools.TypeContext;
+import net.jodah.typetools.TypeResolver;
+import net.jodah.typetools.TypeVisitor;
+import net.jodah.typetools.benchmark.Fixtures.Level0;
+import net.jodah.typetools.benchmark.Fixtures.Level9;
+import net.jodah.typetools.benchmark.Fixtures.Node;
+import net.jodah.typetools.benchmark.Fixtures.Repository;
+import net.jodah.typetools.benchmark.Fixtures.TreeNode;
+import net.jodah.typetools.benchmark.Fixtures.UnboundBounded;
+import net.jodah.typetools.benchmark.Fixtures.UserRepository;
+
+/**
+ * Benchmarks the {@code reify} overloads of {@link TypeResolver}.
+ */
+public class ReifyBenchmark extends AbstractBenchmark {
+  private static final TypeContext DEEP_CONTEXT = TypeResolver.context(Level9.class);
+  private static final ReificationTemplate DEEP_TEMPLATE = TypeResolver.reificationTemplate(Fixtures.DEEP_FIELD_TYPE);
+  private static final ReificationTemplate MIXED_TEMPLATE = TypeResolver.reificationTemplate(
+      Fixtures.MIXED_FIELD_TYPE);
+
+  @Benchmark
+  public Type reifyClassPlainClass() {
+    return TypeResolver.reify(Repository.class, UserRepository.class);
+  }
+
+  @Benchmark
+  public Type reifyClassDeepHierarchy() {
+    return TypeResolver.reify(Level0.class, Level9.class);
+  }
+
+  @Benchmark
+  public Type reifyClassSelfReferential() {
+    return TypeResolver.reify(Node.class, TreeNode.class);
+  }
+
+  @Benchmark
+  public Type reifyTypeDeepHierarchy() {
+    return TypeResolver.reify(Fixtures.DEEP_FIELD_TYPE, Level9.class);
+  }
+
+  @Benchmark
+  public Type reifyTypeDeepHierarchyWithContext() {
+    return DEEP_CONTEXT.reify(Fixtures.DEEP_FIELD_TYPE);
+  }
+
+  @Benchmark
+  public Type reifyTemplateDeepHierarchy() {
+    return DEEP_TEMPLATE.reify(Level9.class);
+  }
+
+  @Benchmark
+  public Type reifyTypeMixed() {
+    return TypeResolver.reify(Fixtures.MIXED_FIELD_TYPE, Level9.class);
+  }
+
+  @Benchmark
+  public Type reifyTemplateMixed() {
+    return MIXED_TEMPLATE.reify(Level9.class);
+  }
+
+  @Benchmark
+  public void visitTypeMixed(Blackhole blackhole) {
+    TypeResolver.visit(Fixtures.MIXED_FIELD_TYPE, Level9.class, new ConsumingVisitor(blackhole));
+  }
+
+  @Benchmark
+  public Type reifyTypeSelfReferential() {
+    return TypeResolver.reify(Fixtures.ENUM_BOUND_FIELD_TYPE, UnboundBounded.class);
+  }
+
+  @Benchmark
+  public Type reifyWithoutContext() {
+    return TypeResolver.reify(Fixtures.DEEP_FIELD_TYPE);
+  }
+
+  @Benchmark
+  public Type reifyWithoutContextSelfReferential() {
+    return TypeResolver.reify(Fixtures.SELF_REFERENTIAL_FIELD_TYPE);
+  }
+
+  /**
+   * Consumes the raw class of every visited node.
+   */
+  static final class ConsumingVisitor implements TypeVisitor {
+    private final Blackhole blackhole;
+
+    ConsumingVisitor(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public void visitClass(Class<?> type) {
+      blackhole.consume(type);
+    }
+
+    @Override
+    public void visitArray(Class<?> type) {
+      blackhole.consume(type);
+    }
+
+    @Override
+    public boolean visitParameterizedType(Class<?> rawType, ParameterizedType type) {
+      blackhole.consume(rawType);
+      return true;
+    }
+
+    @Override
+    public void endParameterizedType(Class<?> rawType, ParameterizedType type) {
+    }
+
+    @Override
+    public void visitCycle(Class<?> rawType, ParameterizedType type) {
+      blackhole.consume(rawType);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package net.jodah.typetools.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.jodah.typetools.ReifiedMembers;
+import net.jodah.typetools.TypeResolver;
+
+/**
+ * Benchmarks reifying the types of every member of a class, one member at a time and in bulk.
+ */
+public class ReifyMembersBenchmark extends AbstractBenchmark {
+  public static class Entity<ID, T> {
+    public ID id;
+    public T value;
+    public List<T> values;
+    public Map<ID, List<T>> index;
+    public Set<ID> keys;
+
+    public ID getId() {
+      return id;
+    }
+
+    public void setId(ID id) {
+      this.id = id;
+    }
+
+    public T getValue() {
+      return value;
+    }
+
+    public void setValue(T value) {
+      this.value = value;
+    }
+
+    public List<T> getValues() {
+      return values;
+    }
+
+    public void setValues(List<T> values) {
+      this.values = values;
+    }
+
+    public Map<ID, List<T>> getIndex() {
+      return index;
+    }
+
+    public void setIndex(Map<ID, List<T>> index) {
+      this.index = index;
+    }
+  }
+
+  public static class Person extends Entity<Long, String> {
+    public Set<Person> friends;
+
+    public Set<Person> getFriends() {
+      return friends;
+    }
+  }
+
+  @Benchmark
+  public void reifyEachMember(Blackhole blackhole) {
+    for (Class<?> type = Person.class; type != Object.class; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields())
+        blackhole.consume(TypeResolver.reify(field.getGenericType(), Person.class));
+      for (Method method : type.getDeclaredMethods()) {
+        blackhole.consume(TypeResolver.reify(method.getGenericReturnType(), Person.class));
+        for (Type parameterType : method.getGenericParameterTypes())
+          blackhole.consume(TypeResolver.reify(parameterType, Person.class));
+      }
+    }
+  }
+
+  @Benchmark
+  public ReifiedMembers reifyMembers() {
+    return TypeResolver.reifyMembers(Person.class);
+  }
+}
@@ -0,0 +1,65 @@
+package net.jodah.typetools.benchmark;
+
+import java.lang.reflect.Type;
+import java.util.Comparator;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import net.jodah.typetools.TypeResolver;
+import net.jodah.typetools.benchmark.Fixtures.Level0;
+import net.jodah.typetools.benchmark.Fixtures.Level9;
+import net.jodah.typetools.benchmark.Fixtures.Repository;
+import net.jodah.typetools.benchmark.Fixtures.TreeNode;
+import net.jodah.typetools.benchmark.Fixtures.UserRepository;
+
+/**
+ * Benchmarks {@link TypeResolver#resolveGenericType(Class, Type)}, {@link TypeResolver#allGenericSupertypes(Class)} and
+ * {@link TypeResolver#resolveRawClass(Type, Class)}.
+ */
+public class ResolveGenericTypeBenchmark extends AbstractBenchmark {
+  @Benchmark
+  public Type resolveGenericTypePlainClass() {
+    return TypeResolver.resolveGenericType(Repository.class, UserRepository.class);
+  }
+
+  @Benchmark
+  public Type resolveGenericTypeDeepClass() {
+    return TypeResolver.resolveGenericType(Level0.class, Level9.class);
+  }
+
+  @Benchmark
+  public Type resolveGenericTypeDeepInterface() {
+    return TypeResolver.resolveGenericType(Comparator.class, Level9.class);
+  }
+
+  @Benchmark
+  public Type resolveGenericTypeSelfReferential() {
+    return TypeResolver.resolveGenericType(Comparable.class, TreeNode.class);
+  }
+
+  @Benchmark
+  public Type resolveGenericTypeUnrelated() {
+    return TypeResolver.resolveGenericType(Repository.class, Level9.class);
+  }
+
+  @Benchmark
+  public Map<Class<?>, Type> allGenericSupertypesDeepClass() {
+    return TypeResolver.allGenericSupertypes(Level9.class);
+  }
+
+  @Benchmark
+  public Class<?> resolveRawClassDeepHierarchy() {
+    return TypeResolver.resolveRawClass(Fixtures.DEEP_METHOD_RETURN_TYPE, Level9.class);
+  }
+
+  @Benchmark
+  public Class<?> resolveRawClassSelfReferential() {
+    return TypeResolver.resolveRawClass(Fixtures.SELF_REFERENTIAL_FIELD_TYPE, TreeNode.class);
+  }
+
+  @Benchmark
+  public Class<?> resolveRawClassTypeVariable() {
+    return TypeResolver.resolveRawClass(Level0.class.getTypeParameters()[0], Level9.class);
+  }
+}
@@ -0,0 +1,85 @@
+package net.jodah.typetools.benchmark;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import net.jodah.typetools.TypeResolver;
+import net.jodah.typetools.TypeShape;
+import net.jodah.typetools.benchmark.Fixtures.Level0;
+import net.jodah.typetools.benchmark.Fixtures.Level9;
+import net.jodah.typetools.benchmark.Fixtures.Node;
+import net.jodah.typetools.benchmark.Fixtures.Repository;
+import net.jodah.typetools.benchmark.Fixtures.StringList;
+import net.jodah.typetools.benchmark.Fixtures.TreeNode;
+import net.jodah.typetools.benchmark.Fixtures.UserRepository;
+
+/**
+ * Benchmarks {@link TypeResolver#resolveRawArguments(Class, Class)} and
+ * {@link TypeResolver#resolveRawArgument(Class, Class)}.
+ */
+public class ResolveRawArgumentsBenchmark extends AbstractBenchmark {
+  @Benchmark
+  public Class<?>[] resolveRawArgumentsPlainClass() {
+    return TypeResolver.resolveRawArguments(Repository.class, UserRepository.class);
+  }
+
+  @Benchmark
+  public Class<?>[] resolveRawArgumentsDeepHierarchy() {
+    return TypeResolver.resolveRawArguments(Level0.class, Level9.class);
+  }
+
+  @Benchmark
+  public TypeShape resolveTypeShapeMixed() {
+    return TypeResolver.resolveTypeShape(Fixtures.MIXED_FIELD_TYPE, Level9.class);
+  }
+
+  @Benchmark
+  public Class<?>[] resolveRawArgumentsLambda() {
+    return TypeResolver.resolveRawArguments(Function.class, Fixtures.LAMBDA.getClass());
+  }
+
+  @Benchmark
+  public Class<?>[] resolveRawArgumentsBiLambda() {
+    return TypeResolver.resolveRawArguments(BiFunction.class, Fixtures.BI_LAMBDA.getClass());
+  }
+
+  @Benchmark
+  public Class<?>[] resolveRawArgumentsMethodRef() {
+    return TypeResolver.resolveRawArguments(Function.class, Fixtures.METHOD_REF.getClass());
+  }
+
+  @Benchmark
+  public Class<?>[] resolveRawArgumentsConstructorRef() {
+    return TypeResolver.resolveRawArguments(Function.class, Fixtures.CONSTRUCTOR_REF.getClass());
+  }
+
+  @Benchmark
+  public Class<?>[] resolveRawArgumentsSelfReferential() {
+    return TypeResolver.resolveRawArguments(Node.class, TreeNode.class);
+  }
+
+  @Benchmark
+  public Class<?> resolveRawArgumentPlainClass() {
+    return TypeResolver.resolveRawArgument(List.class, StringList.class);
+  }
+
+  @Benchmark
+  public Class<?> resolveRawArgumentDeepHierarchy() {
+    return TypeResolver.resolveRawArgument(Comparator.class, Level9.class);
+  }
+
+  @Benchmark
+  public Class<?> resolveRawArgumentLambda() {
+    return TypeResolver.resolveRawArgument(Supplier.class, Fixtures.SUPPLIER.getClass());
+  }
+
+  @Benchmark
+  public Class<?> resolveRawArgumentSelfReferential() {
+    return TypeResolver.resolveRawArgument(Comparable.class, TreeNode.class);
+  }
+}
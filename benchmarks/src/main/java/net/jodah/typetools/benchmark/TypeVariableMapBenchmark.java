@@ -0,0 +1,162 @@
+package net.jodah.typetools.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.jodah.typetools.TypeResolver;
+
+/**
+ * Benchmarks building the type variable maps of many sibling classes that extend the same 20 level generic hierarchy.
+ * New leaf classes are defined before each invocation, so that their maps are built while the hierarchy's own cached
+ * information is reused. Each operation resolves a type variable of the hierarchy's root against one leaf class.
+ */
+public class TypeVariableMapBenchmark extends AbstractBenchmark {
+  static final int LEAVES = 1000;
+
+  public static class Level00<A, B> {
+  }
+
+  public static class Level01<A, B> extends Level00<A, B> implements Comparable<B> {
+    @Override
+    public int compareTo(B o) {
+      return 0;
+    }
+  }
+
+  public static class Level02<B, A> extends Level01<A, B> {
+  }
+
+  public static class Level03<A, B> extends Level02<B, A> {
+  }
+
+  public static class Level04<A, B> extends Level03<A, B> {
+  }
+
+  public static class Level05<B, A> extends Level04<A, B> {
+  }
+
+  public static class Level06<A, B> extends Level05<B, A> {
+  }
+
+  public static class Level07<A, B> extends Level06<A, B> {
+  }
+
+  public static class Level08<B, A> extends Level07<A, B> {
+  }
+
+  public static class Level09<A, B> extends Level08<B, A> {
+  }
+
+  public static class Level10<A, B> extends Level09<A, B> {
+  }
+
+  public static class Level11<B, A> extends Level10<A, B> {
+  }
+
+  public static class Level12<A, B> extends Level11<B, A> {
+  }
+
+  public static class Level13<A, B> extends Level12<A, B> {
+  }
+
+  public static class Level14<B, A> extends Level13<A, B> {
+  }
+
+  public static class Level15<A, B> extends Level14<B, A> {
+  }
+
+  public static class Level16<A, B> extends Level15<A, B> {
+  }
+
+  public static class Level17<B, A> extends Level16<A, B> {
+  }
+
+  public static class Level18<A, B> extends Level17<B, A> {
+  }
+
+  public static class Level19<A, B> extends Level18<A, B> {
+  }
+
+  private static final Type ROOT_VARIABLE = Level00.class.getTypeParameters()[0];
+
+  private Class<?>[] leaves;
+
+  @Setup(Level.Invocation)
+  public void setUpLeaves() throws IOException {
+    leaves = new LeafLoader().defineLeaves(LEAVES);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LEAVES)
+  public void resolveRawClassManyLeaves(Blackhole blackhole) {
+    for (Class<?> leaf : leaves)
+      blackhole.consume(TypeResolver.resolveRawClass(ROOT_VARIABLE, leaf));
+  }
+
+  /**
+   * Defines copies of {@link HierarchyLeaf} under names of the same length, so that its class file can be copied with
+   * the names replaced byte for byte.
+   */
+  static final class LeafLoader extends ClassLoader {
+    private static final String TEMPLATE_NAME = HierarchyLeaf.class.getName();
+
+    LeafLoader() {
+      super(TypeVariableMapBenchmark.class.getClassLoader());
+    }
+
+    Class<?>[] defineLeaves(int count) throws IOException {
+      byte[] template = readTemplate();
+      byte[] templateName = TEMPLATE_NAME.replace('.', '/').getBytes(StandardCharsets.US_ASCII);
+      String prefix = TEMPLATE_NAME.substring(0, TEMPLATE_NAME.length() - 3);
+
+      Class<?>[] leaves = new Class<?>[count];
+      for (int i = 0; i < count; i++) {
+        String name = String.format("%s%03d", prefix, i);
+        byte[] bytes = replace(template, templateName, name.replace('.', '/').getBytes(StandardCharsets.US_ASCII));
+        leaves[i] = defineClass(name, bytes, 0, bytes.length);
+      }
+
+      return leaves;
+    }
+
+    private static byte[] readTemplate() throws IOException {
+      String resource = TEMPLATE_NAME.substring(TEMPLATE_NAME.lastIndexOf('.') + 1) + ".class";
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try (InputStream in = HierarchyLeaf.class.getResourceAsStream(resource)) {
+        byte[] buffer = new byte[4096];
+        for (int read; (read = in.read(buffer)) != -1;)
+          out.write(buffer, 0, read);
+      }
+
+      return out.toByteArray();
+    }
+
+    private static byte[] replace(byte[] bytes, byte[] target, byte[] replacement) {
+      byte[] result = bytes.clone();
+      outer: for (int i = 0; i <= result.length - target.length; i++) {
+        for (int j = 0; j < target.length; j++)
+          if (result[i + j] != target[j])
+            continue outer;
+        System.arraycopy(replacement, 0, result, i, replacement.length);
+      }
+
+      return result;
+    }
+  }
+}
+
+/**
+ * The template for the benchmark's leaf classes. Its name must end with three characters that can be replaced by a
+ * leaf's index.
+ */
+class HierarchyLeaf extends TypeVariableMapBenchmark.Level19<String, Integer> {
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Member;
+
+/**
+ * Looks up the member a lambda delegates to in the registry of the optional {@code typetools-agent}, which records
+ * each lambda's implementation method as the lambda class is spun. Lookups are constant time and do not touch JDK
+ * internals. Lambdas that the agent did not record are left to other backends.
+ */
+final class AgentIntrospector extends LambdaIntrospector {
+  static final String NAME = "agent";
+  static final String REGISTRY_CLASS = "net.jodah.typetools.agent.LambdaRegistry";
+
+  /** (Class)Member */
+  private final MethodHandle memberOf;
+
+  private AgentIntrospector(MethodHandle memberOf) {
+    this.memberOf = memberOf;
+  }
+
+  /**
+   * Returns an introspector bound to the agent's registry, else throws if the agent is not installed.
+   */
+  static AgentIntrospector probe() throws Exception {
+    // The agent adds its registry to the bootstrap class path
+    return bind(Class.forName(REGISTRY_CLASS, false, null));
+  }
+
+  /**
+   * Returns an introspector bound to the public static {@code memberOf(Class)} method of the {@code registry}.
+   */
+  static AgentIntrospector bind(Class<?> registry) throws Exception {
+    return new AgentIntrospector(MethodHandles.publicLookup()
+        .findStatic(registry, "memberOf", MethodType.methodType(Member.class, Class.class)));
+  }
+
+  @Override
+  String name() {
+    return NAME;
+  }
+
+  @Override
+  Member getMemberRef(Class<?> type) {
+    try {
+      return (Member) memberOf.invokeExact(type);
+    } catch (Throwable ignore) {
+      return null;
+    }
+  }
+}
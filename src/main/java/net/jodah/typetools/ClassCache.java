@@ -0,0 +1,392 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.jodah.typetools.TypeResolver.CacheRetention;
+
+/**
+ * A cache of values that are computed once per class. Cached values are read without locking, and a missing value is
+ * computed at most once even when several threads miss at the same time. Threads only block on a per-class lock, and
+ * only while that class's value is being computed.
+ *
+ * <p>
+ * Entries are attached to their class through {@link ClassValue} where available, but only for classes defined by this
+ * cache's own class loader or one of its descendants. Since an attached entry is strongly reachable from its class, it
+ * would otherwise keep this cache's class loader from being collected for as long as a class from a parent or the
+ * bootstrap loader, such as {@code ArrayList}, is loaded. Entries for such classes, and all entries on platforms without
+ * {@code ClassValue}, such as Android, are held in a map with weak keys that is also read without locking. Values in
+ * that map are only held strongly for classes that outlive the cache, since a value that refers to a class from an
+ * unrelated loader, such as a sibling loader, would otherwise keep that class from being unloaded. Those values are
+ * weakly referenced instead.
+ *
+ * <p>
+ * How long a value is retained is controlled by a {@link CacheRetention}, and the number of retained values can
+ * optionally be bounded, in which case the oldest values are evicted first.
+ *
+ * @param <V> value type, which must not itself be a {@link Reference}
+ */
+abstract class ClassCache<V> {
+  static final int UNBOUNDED = -1;
+  private static final boolean CLASS_VALUE_SUPPORTED;
+  private static final ClassLoader OWN_LOADER = ClassCache.class.getClassLoader();
+
+  static {
+    boolean supported;
+    try {
+      Class.forName("java.lang.ClassValue");
+      supported = true;
+    } catch (Throwable ignore) {
+      supported = false;
+    }
+    CLASS_VALUE_SUPPORTED = supported;
+  }
+
+  /**
+   * Returns whether the {@code type} is defined by this cache's class loader or one of its descendants, and so can not
+   * outlive the cache.
+   */
+  static boolean isAttachable(Class<?> type) {
+    if (OWN_LOADER == null)
+      return true;
+
+    try {
+      for (ClassLoader loader = type.getClassLoader(); loader != null; loader = loader.getParent())
+        if (loader == OWN_LOADER)
+          return true;
+    } catch (SecurityException ignore) {
+      // Fall back to the weakly keyed map
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether the {@code type} is defined by this cache's class loader or one of its ancestors, and so is not
+   * unloaded before the cache is.
+   */
+  static boolean outlivesCache(Class<?> type) {
+    ClassLoader typeLoader = type.getClassLoader();
+    if (typeLoader == null)
+      return true;
+
+    try {
+      for (ClassLoader loader = OWN_LOADER; loader != null; loader = loader.getParent())
+        if (loader == typeLoader)
+          return true;
+    } catch (SecurityException ignore) {
+      // Hold values weakly
+    }
+    return false;
+  }
+
+  /** Computes the value for a class. */
+  interface Loader<V> {
+    V load(Class<?> type);
+  }
+
+  /** A per-class slot holding a published value, either directly or through a reference. */
+  static final class Entry<V> {
+    /**
+     * Whether {@link CacheRetention#CLASS} values can be held strongly, since they are only reachable while their
+     * class is, or since their class outlives the cache anyway
+     */
+    final boolean strong;
+    volatile Object value;
+    /** Whether the entry is tracked for eviction, so that a value reloaded after being reclaimed is not counted twice */
+    volatile boolean queued;
+
+    Entry(boolean strong) {
+      this.strong = strong;
+    }
+
+    @SuppressWarnings("unchecked")
+    V value() {
+      Object v = value;
+      return v instanceof Reference ? ((Reference<V>) v).get() : (V) v;
+    }
+  }
+
+  private volatile CacheRetention retention = CacheRetention.CLASS;
+  private volatile int maximumSize = UNBOUNDED;
+  /** Entries in insertion order, tracked only when the cache is bounded */
+  private final Queue<Reference<Entry<V>>> insertions = new ConcurrentLinkedQueue<Reference<Entry<V>>>();
+  private final AtomicInteger size = new AtomicInteger();
+
+  static <V> ClassCache<V> create() {
+    return CLASS_VALUE_SUPPORTED ? new ClassValueCache<V>() : new WeakKeyCache<V>();
+  }
+
+  /**
+   * Returns the entry for the {@code type}, creating an empty entry if necessary.
+   */
+  abstract Entry<V> entry(Class<?> type);
+
+  /**
+   * Removes all entries.
+   */
+  void clear() {
+    clearEntries();
+    insertions.clear();
+    size.set(0);
+  }
+
+  abstract void clearEntries();
+
+  /**
+   * Clears the cache and retains subsequently loaded values according to the {@code retention}, keeping at most
+   * {@code maximumSize} values unless it is {@link #UNBOUNDED}.
+   */
+  void configure(CacheRetention retention, int maximumSize) {
+    this.retention = retention;
+    this.maximumSize = maximumSize;
+    clear();
+  }
+
+  /**
+   * Returns the cached value for the {@code type} else {@code null}.
+   */
+  V get(Class<?> type) {
+    return entry(type).value();
+  }
+
+  /**
+   * Returns the cached value for the {@code type}, else loads, publishes and returns it. Concurrent callers that miss
+   * on the same {@code type} wait for the first caller's value instead of computing their own.
+   */
+  V get(Class<?> type, Loader<V> loader) {
+    Entry<V> entry = entry(type);
+    V value = entry.value();
+    if (value == null) {
+      synchronized (entry) {
+        value = entry.value();
+        if (value == null) {
+          value = loader.load(type);
+          publish(entry, value);
+        }
+      }
+    }
+
+    return value;
+  }
+
+  private void publish(Entry<V> entry, V value) {
+    switch (retention) {
+      case SOFT:
+        entry.value = new SoftReference<V>(value);
+        break;
+      case WEAK:
+        entry.value = new WeakReference<V>(value);
+        break;
+      default:
+        // A value held strongly in a weakly keyed map would keep its class from being unloaded if it refers to it
+        entry.value = entry.strong ? value : new WeakReference<V>(value);
+    }
+
+    int max = maximumSize;
+    if (max != UNBOUNDED && !entry.queued) {
+      // Entries are tracked weakly so that the queue does not keep unloaded classes' entries alive
+      entry.queued = true;
+      insertions.add(new WeakReference<Entry<V>>(entry));
+      if (size.incrementAndGet() > max)
+        evict(max);
+    }
+  }
+
+  private void evict(int max) {
+    while (size.get() > max) {
+      Reference<Entry<V>> oldest = insertions.poll();
+      if (oldest == null)
+        return;
+      size.decrementAndGet();
+      Entry<V> entry = oldest.get();
+      if (entry != null) {
+        // Dequeued before clearing, so that a concurrent reload either is cleared here or queues the entry again
+        entry.queued = false;
+        entry.value = null;
+      }
+    }
+  }
+
+  private static final class ClassValueCache<V> extends ClassCache<V> {
+    private volatile ClassValue<Entry<V>> entries = newEntries();
+    /** Entries for classes that outlive this cache's class loader */
+    private final WeakClassMap<V> foreignEntries = new WeakClassMap<V>();
+
+    @Override
+    Entry<V> entry(Class<?> type) {
+      return isAttachable(type) ? entries.get(type) : foreignEntries.entry(type);
+    }
+
+    @Override
+    void clearEntries() {
+      // ClassValue cannot be cleared for all classes at once, so the old instance is dropped along with its entries
+      entries = newEntries();
+      foreignEntries.clear();
+    }
+
+    private static <V> ClassValue<Entry<V>> newEntries() {
+      return new ClassValue<Entry<V>>() {
+        @Override
+        protected Entry<V> computeValue(Class<?> type) {
+          return new Entry<V>(true);
+        }
+      };
+    }
+  }
+
+  /**
+   * Note that since values are not attached to their class on these platforms, {@link CacheRetention#CLASS} values are
+   * only held strongly for classes that outlive the cache.
+   */
+  private static final class WeakKeyCache<V> extends ClassCache<V> {
+    private final WeakClassMap<V> entries = new WeakClassMap<V>();
+
+    @Override
+    Entry<V> entry(Class<?> type) {
+      return entries.entry(type);
+    }
+
+    @Override
+    void clearEntries() {
+      entries.clear();
+    }
+  }
+
+  /**
+   * A map of entries with weakly referenced class keys. Lookups read an immutable chain of nodes without locking, while
+   * new entries are added, and nodes of collected classes purged, under the map's lock.
+   */
+  static final class WeakClassMap<V> {
+    private static final int INITIAL_CAPACITY = 16;
+    private final ReferenceQueue<Class<?>> collected = new ReferenceQueue<Class<?>>();
+    private volatile AtomicReferenceArray<Node<V>> table = new AtomicReferenceArray<Node<V>>(INITIAL_CAPACITY);
+    /** Number of nodes in the table, guarded by this map */
+    private int size;
+
+    private static final class Node<V> extends WeakReference<Class<?>> {
+      final int hash;
+      final Entry<V> entry;
+      final Node<V> next;
+
+      Node(Class<?> type, int hash, Entry<V> entry, Node<V> next, ReferenceQueue<Class<?>> queue) {
+        super(type, queue);
+        this.hash = hash;
+        this.entry = entry;
+        this.next = next;
+      }
+    }
+
+    /**
+     * Returns the entry for the {@code type}, creating an empty entry if necessary.
+     */
+    Entry<V> entry(Class<?> type) {
+      int hash = hash(type);
+      Entry<V> entry = find(table, type, hash);
+      return entry != null ? entry : add(type, hash);
+    }
+
+    synchronized void clear() {
+      table = new AtomicReferenceArray<Node<V>>(INITIAL_CAPACITY);
+      size = 0;
+      while (collected.poll() != null)
+        ;
+    }
+
+    private synchronized Entry<V> add(Class<?> type, int hash) {
+      Entry<V> entry = find(table, type, hash);
+      if (entry != null)
+        return entry;
+
+      purge();
+      AtomicReferenceArray<Node<V>> t = table;
+      if (size >= t.length() - (t.length() >>> 2))
+        t = resize(t);
+      int index = hash & (t.length() - 1);
+      entry = new Entry<V>(outlivesCache(type));
+      t.set(index, new Node<V>(type, hash, entry, t.get(index), collected));
+      size++;
+      return entry;
+    }
+
+    private static <V> Entry<V> find(AtomicReferenceArray<Node<V>> table, Class<?> type, int hash) {
+      for (Node<V> node = table.get(hash & (table.length() - 1)); node != null; node = node.next)
+        if (node.get() == type)
+          return node.entry;
+      return null;
+    }
+
+    /** Removes the nodes of collected classes. */
+    private void purge() {
+      for (Reference<? extends Class<?>> ref; (ref = collected.poll()) != null;) {
+        @SuppressWarnings("unchecked")
+        Node<V> stale = (Node<V>) ref;
+        AtomicReferenceArray<Node<V>> t = table;
+        int index = stale.hash & (t.length() - 1);
+        Node<V> head = t.get(index);
+        Node<V> node = head;
+        while (node != null && node != stale)
+          node = node.next;
+        // Nodes that were already dropped from the chain by an earlier purge or resize are not found
+        if (node == null)
+          continue;
+
+        // Nodes are immutable so that lookups need no lock, so the nodes ahead of the stale node are copied
+        Node<V> chain = stale.next;
+        size--;
+        for (node = head; node != stale; node = node.next)
+          chain = copy(node, chain);
+        t.set(index, chain);
+      }
+    }
+
+    private AtomicReferenceArray<Node<V>> resize(AtomicReferenceArray<Node<V>> old) {
+      AtomicReferenceArray<Node<V>> resized = new AtomicReferenceArray<Node<V>>(old.length() << 1);
+      for (int i = 0; i < old.length(); i++)
+        for (Node<V> node = old.get(i); node != null; node = node.next) {
+          int index = node.hash & (resized.length() - 1);
+          resized.set(index, copy(node, resized.get(index)));
+        }
+      table = resized;
+      return resized;
+    }
+
+    /**
+     * Returns a copy of the {@code node} followed by the {@code next} node, else the {@code next} node if the
+     * {@code node}'s class was collected.
+     */
+    private Node<V> copy(Node<V> node, Node<V> next) {
+      Class<?> type = node.get();
+      if (type == null) {
+        size--;
+        return next;
+      }
+      return new Node<V>(type, node.hash, node.entry, next, collected);
+    }
+
+    private static int hash(Class<?> type) {
+      int h = System.identityHashCode(type);
+      return h ^ (h >>> 16);
+    }
+  }
+}
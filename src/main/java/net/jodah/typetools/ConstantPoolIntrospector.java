@@ -0,0 +1,277 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+
+import sun.misc.Unsafe;
+
+/**
+ * Finds the member a lambda delegates to by scanning the lambda class's constant pool, which is read through JDK
+ * internals obtained via {@code Unsafe}.
+ */
+@SuppressWarnings("restriction")
+final class ConstantPoolIntrospector extends LambdaIntrospector {
+  static final String NAME = "constant-pool";
+
+  private interface AccessMaker {
+    void makeAccessible(AccessibleObject object) throws Throwable;
+  }
+
+  /**
+   * Binds the JDK's constant pool accessors on first use. They are held in static final fields so that the JIT can
+   * treat them as constants and inline their invocations.
+   */
+  private static final class Accessors {
+    /** (Class)Object, bound to the JavaLangAccess instance */
+    static final MethodHandle CONSTANT_POOL_GETTER;
+    /** (Object)int */
+    static final MethodHandle CONSTANT_POOL_SIZE_GETTER;
+    /** (Object, int)Member */
+    static final MethodHandle CONSTANT_POOL_METHOD_GETTER;
+    /** (Object, int)Object, only available on Java 9 and above */
+    static final MethodHandle CONSTANT_POOL_TAG_GETTER;
+    static final Object METHOD_REF_TAG;
+    static final Object INTERFACE_METHOD_REF_TAG;
+    /** Why the accessors could not be bound, else {@code null} */
+    static final Throwable FAILURE;
+
+    static {
+      MethodHandle[] handles = new MethodHandle[4];
+      Object[] tags = new Object[2];
+      Throwable failure = null;
+      try {
+        bind(handles, tags);
+      } catch (Throwable e) {
+        failure = e;
+      }
+
+      CONSTANT_POOL_GETTER = handles[0];
+      CONSTANT_POOL_SIZE_GETTER = handles[1];
+      CONSTANT_POOL_METHOD_GETTER = handles[2];
+      CONSTANT_POOL_TAG_GETTER = handles[3];
+      METHOD_REF_TAG = tags[0];
+      INTERFACE_METHOD_REF_TAG = tags[1];
+      FAILURE = failure;
+    }
+
+    /**
+     * Binds the constant pool getter, size getter, method getter and, where available, tag getter into the
+     * {@code handles}, and the method ref and interface method ref tags into the {@code tags}.
+     */
+    private static void bind(MethodHandle[] handles, Object[] tags) throws Throwable {
+      final Unsafe unsafe = getUnsafe();
+
+      Class<?> sharedSecretsClass;
+      AccessMaker accessSetter;
+      if (TypeResolver.JAVA_VERSION < 9) {
+        sharedSecretsClass = Class.forName("sun.misc.SharedSecrets");
+        // Java 8 and lower can simply call setAccessible
+        accessSetter = new AccessMaker() {
+          @Override
+          public void makeAccessible(AccessibleObject accessibleObject) {
+            accessibleObject.setAccessible(true);
+          }
+        };
+      } else if (TypeResolver.JAVA_VERSION < 12) {
+          try {
+            sharedSecretsClass = Class.forName("jdk.internal.misc.SharedSecrets");
+          } catch (ClassNotFoundException e) {
+            // In Oracle JDK 11.0.6, SharedSecrets was moved from jdk.internal.misc to jdk.internal.access.
+            sharedSecretsClass = Class.forName("jdk.internal.access.SharedSecrets");
+          }
+          // access control got strengthed in Java 9, but can be circumvented with Unsafe.
+          Field overrideField = AccessibleObject.class.getDeclaredField("override");
+          final long overrideFieldOffset = unsafe.objectFieldOffset(overrideField);
+          accessSetter = new AccessMaker() {
+            @Override
+            public void makeAccessible(AccessibleObject accessibleObject) {
+              unsafe.putBoolean(accessibleObject, overrideFieldOffset, true);
+            }
+        };
+      } else {
+          sharedSecretsClass = Class.forName("jdk.internal.access.SharedSecrets");
+          // In Java 12, AccessibleObject.override was added to the reflection blacklist.
+          // Access checking can still be circumvented by using the Unsafe technique to get the implementation lookup from MethodHandles.
+          Field implLookupField = MethodHandles.Lookup.class.getDeclaredField("IMPL_LOOKUP");
+          long implLookupFieldOffset = unsafe.staticFieldOffset(implLookupField);
+          Object lookupStaticFieldBase = unsafe.staticFieldBase(implLookupField);
+          MethodHandles.Lookup implLookup = (MethodHandles.Lookup) unsafe.getObject(lookupStaticFieldBase, implLookupFieldOffset);
+          final MethodHandle overrideSetter = implLookup.findSetter(AccessibleObject.class, "override", boolean.class);
+          accessSetter = new AccessMaker() {
+            @Override
+            public void makeAccessible(AccessibleObject object) throws Throwable {
+              overrideSetter.invokeWithArguments(new Object[] {object, true});
+            }
+        };
+      }
+      Method javaLangAccessGetter = sharedSecretsClass.getMethod("getJavaLangAccess");
+      accessSetter.makeAccessible(javaLangAccessGetter);
+      Object javaLangAccess = javaLangAccessGetter.invoke(null);
+      Method getConstantPool = javaLangAccess.getClass().getMethod("getConstantPool", Class.class);
+
+      String constantPoolName = TypeResolver.JAVA_VERSION < 9 ? "sun.reflect.ConstantPool" : "jdk.internal.reflect.ConstantPool";
+      Class<?> constantPoolClass = Class.forName(constantPoolName);
+      Method getConstantPoolSize = constantPoolClass.getDeclaredMethod("getSize");
+      Method getConstantPoolMethodAt = constantPoolClass.getDeclaredMethod("getMethodAt", int.class);
+
+      // setting the methods as accessible
+      accessSetter.makeAccessible(getConstantPool);
+      accessSetter.makeAccessible(getConstantPoolSize);
+      accessSetter.makeAccessible(getConstantPoolMethodAt);
+
+      // Bind the accessors to method handles once, erasing the internal ConstantPool type so that they can be invoked
+      // exactly, without boxing, varargs arrays or per call access checks
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      handles[0] = lookup.unreflect(getConstantPool)
+          .bindTo(javaLangAccess)
+          .asType(MethodType.methodType(Object.class, Class.class));
+      handles[1] = lookup.unreflect(getConstantPoolSize)
+          .asType(MethodType.methodType(int.class, Object.class));
+      handles[2] = lookup.unreflect(getConstantPoolMethodAt)
+          .asType(MethodType.methodType(Member.class, Object.class, int.class));
+
+      // additional checks - make sure we get a result when invoking the Class::getConstantPool and
+      // ConstantPool::getSize on a class
+      Object constantPool = (Object) handles[0].invokeExact(Object.class);
+      int constantPoolSize = (int) handles[1].invokeExact(constantPool);
+      if (constantPoolSize <= 0)
+        throw new IllegalStateException("Unable to read constant pools");
+
+      // Java 9 and above can read constant pool tags, which allows non-method entries to be skipped without resolving
+      try {
+        Method getConstantPoolTagAt = constantPoolClass.getDeclaredMethod("getTagAt", int.class);
+        accessSetter.makeAccessible(getConstantPoolTagAt);
+        for (Object tag : getConstantPoolTagAt.getReturnType().getEnumConstants())
+          if ("METHODREF".equals(tag.toString()))
+            tags[0] = tag;
+          else if ("INTERFACEMETHODREF".equals(tag.toString()))
+            tags[1] = tag;
+        if (tags[0] != null && tags[1] != null)
+          handles[3] = lookup.unreflect(getConstantPoolTagAt)
+              .asType(MethodType.methodType(Object.class, Object.class, int.class));
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable ignore) {
+      }
+    }
+  }
+
+  private ConstantPoolIntrospector() {
+  }
+
+  /**
+   * Returns an introspector bound to the JDK's constant pool accessors, else throws if they cannot be accessed.
+   */
+  static ConstantPoolIntrospector probe() throws Throwable {
+    if (Accessors.FAILURE != null)
+      throw Accessors.FAILURE;
+    return new ConstantPoolIntrospector();
+  }
+
+  @Override
+  String name() {
+    return NAME;
+  }
+
+  @Override
+  Member getMemberRef(Class<?> type) {
+    Object constantPool;
+    try {
+      constantPool = (Object) Accessors.CONSTANT_POOL_GETTER.invokeExact(type);
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable ignore) {
+      return null;
+    }
+
+    Member result = null;
+    for (int i = getConstantPoolSize(constantPool) - 1; i >= 0; i--) {
+      if (!isConstantPoolMethodAt(constantPool, i))
+        continue;
+
+      Member member = getConstantPoolMethodAt(constantPool, i);
+      // Skip SerializedLambda constructors and members of the "type" class
+      if (member == null
+          || (member instanceof Constructor
+              && member.getDeclaringClass().getName().equals("java.lang.invoke.SerializedLambda"))
+          || member.getDeclaringClass().isAssignableFrom(type))
+        continue;
+
+      result = member;
+
+      // Return if not valueOf method
+      if (!(member instanceof Method) || !isAutoBoxingMethod((Method) member))
+        break;
+    }
+
+    return result;
+  }
+
+  private boolean isAutoBoxingMethod(Method method) {
+    Class<?>[] parameters = method.getParameterTypes();
+    return method.getName().equals("valueOf") && parameters.length == 1 && parameters[0].isPrimitive()
+        && TypeResolver.wrapPrimitives(parameters[0]).equals(method.getDeclaringClass());
+  }
+
+  private int getConstantPoolSize(Object constantPool) {
+    try {
+      return (int) Accessors.CONSTANT_POOL_SIZE_GETTER.invokeExact(constantPool);
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable ignore) {
+      return 0;
+    }
+  }
+
+  /**
+   * Returns whether the constant pool entry at {@code i} may be a method or constructor. Where tags cannot be read, every
+   * entry may be, and non-method entries are skipped by {@link #getConstantPoolMethodAt(Object, int)} failing instead.
+   */
+  private boolean isConstantPoolMethodAt(Object constantPool, int i) {
+    if (Accessors.CONSTANT_POOL_TAG_GETTER == null)
+      return true;
+
+    try {
+      Object tag = (Object) Accessors.CONSTANT_POOL_TAG_GETTER.invokeExact(constantPool, i);
+      return tag == Accessors.METHOD_REF_TAG || tag == Accessors.INTERFACE_METHOD_REF_TAG;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable ignore) {
+      return true;
+    }
+  }
+
+  private Member getConstantPoolMethodAt(Object constantPool, int i) {
+    try {
+      return (Member) Accessors.CONSTANT_POOL_METHOD_GETTER.invokeExact(constantPool, i);
+    } catch (LinkageError ignore) {
+      // Entries that refer to classes which cannot be loaded are skipped
+      return null;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable ignore) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Member;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Values that are cached for a class, such as in a {@link ClassCache}, and keyed by generic type. Since the values live
+ * as long as their class is cached, a generic type is only cached when every class it refers to is visible from that
+ * class's loader, so that cached types do not keep classes of unrelated or child loaders reachable. At most
+ * {@link #MAXIMUM_SIZE} generic types are cached per class, and values for further types are not cached.
+ *
+ * @param <V> value type
+ */
+final class GenericTypeCache<V> {
+  static final int MAXIMUM_SIZE = 64;
+
+  private final ConcurrentMap<Type, V> values = new ConcurrentHashMap<Type, V>(4);
+
+  /**
+   * Returns the value cached for the {@code genericType}, else {@code null}.
+   */
+  V get(Type genericType) {
+    return values.get(genericType);
+  }
+
+  /**
+   * Caches the {@code value} for the {@code genericType} unless the type cannot be cached for the {@code owner}, which
+   * is the class this cache belongs to. Racing threads compute equal values, so whichever was published first is
+   * returned to all of them.
+   *
+   * @return the published value, else {@code value} if it was not cached
+   */
+  V publish(Class<?> owner, Type genericType, V value) {
+    if (values.size() >= MAXIMUM_SIZE || !isVisible(genericType, owner.getClassLoader()))
+      return value;
+
+    V published = values.putIfAbsent(genericType, value);
+    return published == null ? value : published;
+  }
+
+  int size() {
+    return values.size();
+  }
+
+  /**
+   * Returns whether every class that the {@code type} refers to is defined by the {@code loader} or one of its
+   * ancestors, else {@code false} if it is not, or if the {@code type} is of an unknown kind.
+   */
+  static boolean isVisible(Type type, ClassLoader loader) {
+    if (type instanceof Class) {
+      Class<?> clazz = (Class<?>) type;
+      while (clazz.isArray())
+        clazz = clazz.getComponentType();
+      ClassLoader classLoader = clazz.getClassLoader();
+      if (classLoader == null)
+        return true;
+      for (ClassLoader ancestor = loader; ancestor != null; ancestor = ancestor.getParent())
+        if (ancestor == classLoader)
+          return true;
+      return false;
+    } else if (type instanceof ParameterizedType) {
+      ParameterizedType parameterizedType = (ParameterizedType) type;
+      Type ownerType = parameterizedType.getOwnerType();
+      if (!isVisible(parameterizedType.getRawType(), loader) || (ownerType != null && !isVisible(ownerType, loader)))
+        return false;
+      return isVisible(parameterizedType.getActualTypeArguments(), loader);
+    } else if (type instanceof GenericArrayType) {
+      return isVisible(((GenericArrayType) type).getGenericComponentType(), loader);
+    } else if (type instanceof WildcardType) {
+      WildcardType wildcardType = (WildcardType) type;
+      return isVisible(wildcardType.getUpperBounds(), loader) && isVisible(wildcardType.getLowerBounds(), loader);
+    } else if (type instanceof TypeVariable) {
+      // A type variable refers to its bounds through its declaration
+      GenericDeclaration declaration = ((TypeVariable<?>) type).getGenericDeclaration();
+      if (declaration instanceof Class)
+        return isVisible((Class<?>) declaration, loader);
+      return declaration instanceof Member && isVisible(((Member) declaration).getDeclaringClass(), loader);
+    }
+
+    return false;
+  }
+
+  private static boolean isVisible(Type[] types, ClassLoader loader) {
+    for (Type type : types)
+      if (!isVisible(type, loader))
+        return false;
+    return true;
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.security.AccessController;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sun.misc.Unsafe;
+
+/**
+ * Finds the member that a lambda or method reference class delegates to. Every strategy for doing so relies on JDK
+ * internals, so backends are probed lazily, on the first lambda resolution, rather than when {@link TypeResolver} is
+ * initialized.
+ *
+ * <p>
+ * Backends are probed in the order given by the {@code net.jodah.typetools.lambda.introspectors} system property, a
+ * comma separated list of backend names, else in their default order. Every backend that can be initialized is used,
+ * and each lambda is resolved by the first backend that can determine its member. Setting the property to
+ * {@code none} disables lambda resolution.
+ */
+@SuppressWarnings("restriction")
+abstract class LambdaIntrospector {
+  static final String INTROSPECTORS_PROPERTY = "net.jodah.typetools.lambda.introspectors";
+  static final String[] DEFAULT_INTROSPECTORS = { AgentIntrospector.NAME, SerializedLambdaIntrospector.NAME,
+      ConstantPoolIntrospector.NAME };
+  /** Object's methods by name, for telling functional interface methods apart from Object's */
+  static final Map<String, Method> OBJECT_METHODS;
+
+  static {
+    Map<String, Method> methods = new HashMap<String, Method>();
+    for (Method method : Object.class.getDeclaredMethods())
+      methods.put(method.getName(), method);
+    OBJECT_METHODS = Collections.unmodifiableMap(methods);
+  }
+
+  /** Initialized on first access to {@link LambdaIntrospector#get()} */
+  private static final class Holder {
+    static final LambdaIntrospector INTROSPECTOR;
+    static final long PROBE_NANOS;
+
+    static {
+      long start = System.nanoTime();
+      INTROSPECTOR = probe();
+      PROBE_NANOS = System.nanoTime() - start;
+    }
+  }
+
+  /**
+   * Returns the active introspector, probing for one on first access, else {@code null} if no backend is available.
+   */
+  static LambdaIntrospector get() {
+    return Holder.INTROSPECTOR;
+  }
+
+  /**
+   * Returns how long probing for the active introspector took, in nanoseconds, probing for one on first access.
+   */
+  static long probeNanos() {
+    return Holder.PROBE_NANOS;
+  }
+
+  private static LambdaIntrospector probe() {
+    String[] names = DEFAULT_INTROSPECTORS;
+    try {
+      String property = System.getProperty(INTROSPECTORS_PROPERTY);
+      if (property != null)
+        names = property.split(",");
+    } catch (SecurityException ignore) {
+    }
+
+    List<LambdaIntrospector> introspectors = new ArrayList<LambdaIntrospector>();
+    for (String name : names) {
+      try {
+        LambdaIntrospector introspector = probe(name.trim());
+        if (introspector != null)
+          introspectors.add(introspector);
+      } catch (Throwable ignore) {
+        // Skip backends that are unavailable on this JVM
+      }
+    }
+
+    if (introspectors.isEmpty())
+      return null;
+    return introspectors.size() == 1 ? introspectors.get(0) : new CompositeIntrospector(introspectors);
+  }
+
+  /**
+   * Returns the backend for the {@code name}, else {@code null} if it is unknown. Throws if the backend cannot be
+   * initialized on this JVM.
+   */
+  private static LambdaIntrospector probe(String name) throws Throwable {
+    if (AgentIntrospector.NAME.equals(name))
+      return AgentIntrospector.probe();
+    if (SerializedLambdaIntrospector.NAME.equals(name))
+      return SerializedLambdaIntrospector.probe();
+    if (ConstantPoolIntrospector.NAME.equals(name))
+      return ConstantPoolIntrospector.probe();
+    return null;
+  }
+
+  static Unsafe getUnsafe() throws Exception {
+    return AccessController.doPrivileged(new PrivilegedExceptionAction<Unsafe>() {
+      @Override
+      public Unsafe run() throws Exception {
+        final Field f = Unsafe.class.getDeclaredField("theUnsafe");
+        f.setAccessible(true);
+
+        return (Unsafe) f.get(null);
+      }
+    });
+  }
+
+  /**
+   * Returns the name of this backend.
+   */
+  abstract String name();
+
+  /**
+   * Returns the method or constructor that the {@code lambdaType} delegates to, else {@code null} if it cannot be
+   * determined.
+   */
+  abstract Member getMemberRef(Class<?> lambdaType);
+
+  /**
+   * Resolves each lambda through the first of several backends that can determine its member.
+   */
+  private static final class CompositeIntrospector extends LambdaIntrospector {
+    private final LambdaIntrospector[] introspectors;
+    private final String name;
+
+    CompositeIntrospector(List<LambdaIntrospector> introspectors) {
+      this.introspectors = introspectors.toArray(new LambdaIntrospector[introspectors.size()]);
+      StringBuilder sb = new StringBuilder();
+      for (LambdaIntrospector introspector : introspectors)
+        sb.append(sb.length() == 0 ? "" : ",").append(introspector.name());
+      name = sb.toString();
+    }
+
+    @Override
+    String name() {
+      return name;
+    }
+
+    @Override
+    Member getMemberRef(Class<?> lambdaType) {
+      for (LambdaIntrospector introspector : introspectors) {
+        Member member = introspector.getMemberRef(lambdaType);
+        if (member != null)
+          return member;
+      }
+
+      return null;
+    }
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+
+import net.jodah.typetools.TypeResolver.VisitedTypes;
+
+/**
+ * A generic type that has been prepared for reification against many context classes, as obtained via
+ * {@link TypeResolver#reificationTemplate(Type)}. Parts of the type that do not refer to type variables are reified
+ * once, when the template is created, and are shared by every result. A template is immutable and may be shared
+ * between threads.
+ */
+public final class ReificationTemplate {
+  private final Type type;
+  private final Node root;
+
+  ReificationTemplate(Type type) {
+    this.type = type;
+    root = type == null ? null : compile(type);
+  }
+
+  /**
+   * Returns the generic type that this template reifies.
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Reifies the type using the type information from the given {@code context}, as described by
+   * {@link TypeResolver#reify(Type, Class)}.
+   *
+   * @param context the class that serves as starting point to resolve replacements of type variables
+   * @return a type that is structurally the same as the template's type, except that type variables and wildcard types
+   *         have been replaced with concrete types
+   * @throws UnsupportedOperationException if the type cannot be reified, as described by
+   *         {@link TypeResolver#reify(Type, Class)}
+   */
+  public Type reify(Class<?> context) {
+    return reify(TypeResolver.getTypeVariableMap(context, null));
+  }
+
+  /**
+   * Reifies the type using the type information from the given {@code context}, as described by
+   * {@link TypeContext#reify(Type)}.
+   *
+   * @param context the context to resolve replacements of type variables with
+   * @return a type that is structurally the same as the template's type, except that type variables and wildcard types
+   *         have been replaced with concrete types
+   * @throws UnsupportedOperationException if the type cannot be reified, as described by
+   *         {@link TypeResolver#reify(Type, Class)}
+   */
+  public Type reify(TypeContext context) {
+    return reify(context.typeVariableMap());
+  }
+
+  private Type reify(TypeVariableMap typeVariableMap) {
+    if (root == null)
+      return null;
+    if (root instanceof Constant)
+      return ((Constant) root).reified;
+
+    return TypeResolver.REIFIED_TYPES.intern(root.reify(typeVariableMap, new VisitedTypes()));
+  }
+
+  @Override
+  public String toString() {
+    return "ReificationTemplate[" + type + "]";
+  }
+
+  /**
+   * Compiles the {@code type} bottom up, so that parameterized types whose arguments are all constant become constant
+   * themselves.
+   */
+  private static Node compile(Type type) {
+    if (type instanceof Class)
+      return new Constant(type);
+
+    if (type instanceof ParameterizedType) {
+      ParameterizedType parameterizedType = (ParameterizedType) type;
+      Type[] arguments = parameterizedType.getActualTypeArguments();
+      Node[] nodes = new Node[arguments.length];
+      boolean constant = true;
+      for (int i = 0; i < arguments.length; i++) {
+        nodes[i] = compile(arguments[i]);
+        constant &= nodes[i] instanceof Constant;
+      }
+
+      return constant ? new Constant(TypeResolver.reify(type, TypeVariableMap.EMPTY))
+          : new Parameterized(parameterizedType, nodes);
+    }
+
+    if (type instanceof WildcardType) {
+      WildcardType wildcardType = (WildcardType) type;
+      // Other wildcards cannot be reified, which is left to the resolver to report
+      if (wildcardType.getUpperBounds().length == 1 && wildcardType.getLowerBounds().length == 0)
+        return compile(wildcardType.getUpperBounds()[0]);
+    }
+
+    // Type variables, generic arrays and types that cannot be reified
+    return new Variable(type);
+  }
+
+  /** A part of a template, which reifies the part of the generic type that it was compiled from. */
+  private abstract static class Node {
+    abstract Type reify(TypeVariableMap typeVariableMap, VisitedTypes visited);
+  }
+
+  /** A part that is reified the same in every context. */
+  private static final class Constant extends Node {
+    final Type reified;
+
+    Constant(Type reified) {
+      this.reified = reified;
+    }
+
+    @Override
+    Type reify(TypeVariableMap typeVariableMap, VisitedTypes visited) {
+      return reified;
+    }
+  }
+
+  /** A part that is reified by the resolver, since it depends on the context. */
+  private static final class Variable extends Node {
+    final Type type;
+
+    Variable(Type type) {
+      this.type = type;
+    }
+
+    @Override
+    Type reify(TypeVariableMap typeVariableMap, VisitedTypes visited) {
+      return TypeResolver.reify(type, typeVariableMap, visited);
+    }
+  }
+
+  /** A parameterized type with arguments that depend on the context, which are reified as the resolver would. */
+  private static final class Parameterized extends Node {
+    final ParameterizedType type;
+    final Node[] arguments;
+
+    Parameterized(ParameterizedType type, Node[] arguments) {
+      this.type = type;
+      this.arguments = arguments;
+    }
+
+    @Override
+    Type reify(TypeVariableMap typeVariableMap, VisitedTypes visited) {
+      // Self-references are detected as when reifying the type directly
+      ReifiedParameterizedType result = visited.get(type);
+      if (result != null) {
+        result.addReifiedTypeArgument(result);
+        return result;
+      }
+
+      result = new ReifiedParameterizedType(type, arguments.length);
+      visited.add(result);
+      for (Node argument : arguments) {
+        Type reified = argument.reify(typeVariableMap, visited);
+        if (reified != result)
+          result.addReifiedTypeArgument(reified);
+      }
+
+      return result;
+    }
+  }
+}
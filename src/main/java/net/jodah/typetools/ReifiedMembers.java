@@ -0,0 +1,158 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The generic types of a class's fields, method return types and method parameter types, reified against that class,
+ * as obtained via {@link TypeResolver#reifyMembers(Class)}. Members declared by the class and by each of its
+ * supertypes other than {@code Object} are included, in the order that {@link TypeResolver#allGenericSupertypes(Class)}
+ * visits their declaring types. Synthetic members, such as bridge methods, are not included.
+ *
+ * <p>
+ * Types are reified as described by {@link TypeResolver#reify(Type, Class)}. Types that cannot be reified, such as
+ * wildcards with lower bounds, are represented by their raw class as resolved by
+ * {@link TypeResolver#resolveRawClass(Type, Class)} instead. A model is immutable and may be shared between threads.
+ */
+public final class ReifiedMembers {
+  private final Class<?> type;
+  private final Map<Field, Type> fieldTypes;
+  private final Map<Method, Type> returnTypes;
+  private final Map<Method, List<Type>> parameterTypes;
+
+  private ReifiedMembers(Class<?> type, Map<Field, Type> fieldTypes, Map<Method, Type> returnTypes,
+      Map<Method, List<Type>> parameterTypes) {
+    this.type = type;
+    this.fieldTypes = Collections.unmodifiableMap(fieldTypes);
+    this.returnTypes = Collections.unmodifiableMap(returnTypes);
+    this.parameterTypes = Collections.unmodifiableMap(parameterTypes);
+  }
+
+  /**
+   * Builds the model of the {@code type}'s members, reifying each distinct generic type once against the
+   * {@code context}.
+   */
+  static ReifiedMembers build(Class<?> type, TypeContext context) {
+    Map<Field, Type> fieldTypes = new LinkedHashMap<Field, Type>();
+    Map<Method, Type> returnTypes = new LinkedHashMap<Method, Type>();
+    Map<Method, List<Type>> parameterTypes = new LinkedHashMap<Method, List<Type>>();
+    // Members commonly share generic types, such as a field and its accessors, which are then reified once
+    Map<Type, Type> reified = new HashMap<Type, Type>();
+
+    for (Class<?> declaringType : TypeResolver.allGenericSupertypes(type).keySet()) {
+      for (Field field : declaringType.getDeclaredFields())
+        if (!field.isSynthetic())
+          fieldTypes.put(field, reify(field.getGenericType(), context, reified));
+
+      for (Method method : declaringType.getDeclaredMethods()) {
+        if (method.isSynthetic())
+          continue;
+
+        returnTypes.put(method, reify(method.getGenericReturnType(), context, reified));
+        Type[] genericParameterTypes = method.getGenericParameterTypes();
+        Type[] types = new Type[genericParameterTypes.length];
+        for (int i = 0; i < types.length; i++)
+          types[i] = reify(genericParameterTypes[i], context, reified);
+        parameterTypes.put(method, types.length == 0 ? Collections.<Type>emptyList()
+            : Collections.unmodifiableList(Arrays.asList(types)));
+      }
+    }
+
+    return new ReifiedMembers(type, fieldTypes, returnTypes, parameterTypes);
+  }
+
+  private static Type reify(Type genericType, TypeContext context, Map<Type, Type> reified) {
+    if (genericType instanceof Class)
+      return genericType;
+
+    Type result = reified.get(genericType);
+    if (result == null) {
+      try {
+        result = context.reify(genericType);
+      } catch (UnsupportedOperationException e) {
+        result = context.resolveRawClass(genericType);
+      }
+      reified.put(genericType, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the class whose members are modelled.
+   */
+  public Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * Returns an unmodifiable map of fields to their reified types.
+   */
+  public Map<Field, Type> getFieldTypes() {
+    return fieldTypes;
+  }
+
+  /**
+   * Returns an unmodifiable map of methods to their reified return types.
+   */
+  public Map<Method, Type> getReturnTypes() {
+    return returnTypes;
+  }
+
+  /**
+   * Returns an unmodifiable map of methods to unmodifiable lists of their reified parameter types.
+   */
+  public Map<Method, List<Type>> getParameterTypes() {
+    return parameterTypes;
+  }
+
+  /**
+   * Returns the reified type of the {@code field} else {@code null} if it is not a member of the modelled class.
+   */
+  public Type getFieldType(Field field) {
+    return fieldTypes.get(field);
+  }
+
+  /**
+   * Returns the reified return type of the {@code method} else {@code null} if it is not a member of the modelled
+   * class.
+   */
+  public Type getReturnType(Method method) {
+    return returnTypes.get(method);
+  }
+
+  /**
+   * Returns the reified parameter types of the {@code method} else {@code null} if it is not a member of the modelled
+   * class.
+   */
+  public List<Type> getParameterTypes(Method method) {
+    return parameterTypes.get(method);
+  }
+
+  @Override
+  public String toString() {
+    return "ReifiedMembers[" + type.getName() + "]";
+  }
+}
@@ -2,17 +2,40 @@ package net.jodah.typetools;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Arrays;
 
+/**
+ * A parameterized type whose type arguments have been reified. Instances are built by adding their type arguments, and
+ * are then {@link #freeze() frozen}, after which they are immutable and compare equal to any {@link ParameterizedType}
+ * with equal raw type, owner type and type arguments, following the contract of the JDK's own implementation.
+ */
 class ReifiedParameterizedType implements ParameterizedType {
     private final ParameterizedType original;
     private final Type[] reifiedTypeArguments;
     private final boolean[] loop;
     private int reified = 0;
+    private boolean frozen;
+    /*
+     * Instances are frozen before they are returned from reification or published by the interner's concurrent map,
+     * so the hash computed by freeze() is visible to any thread that is safely handed the type. The cached string is
+     * racy, which is benign: every thread builds an equal, immutable String, and one that does not yet see it builds
+     * its own.
+     */
+    private int hash;
+    private String string;
 
     ReifiedParameterizedType(ParameterizedType original) {
+      this(original, original.getActualTypeArguments().length);
+    }
+
+    /**
+     * Creates a type for the {@code original}, which has {@code argumentCount} type arguments, so that callers that
+     * already hold its arguments need not copy them again.
+     */
+    ReifiedParameterizedType(ParameterizedType original, int argumentCount) {
       this.original = original;
-      this.reifiedTypeArguments = new Type[original.getActualTypeArguments().length];
-      this.loop = new boolean[original.getActualTypeArguments().length];
+      this.reifiedTypeArguments = new Type[argumentCount];
+      this.loop = new boolean[argumentCount];
     }
 
     /**
@@ -24,6 +47,7 @@ class ReifiedParameterizedType implements ParameterizedType {
      * @param type the reification result to be added
      */
   /* package-private */ void addReifiedTypeArgument(Type type) {
+      checkNotFrozen();
       if (reified >= reifiedTypeArguments.length) {
         return;
       }
@@ -33,9 +57,70 @@ class ReifiedParameterizedType implements ParameterizedType {
       reifiedTypeArguments[reified++] = type;
     }
 
+    /**
+     * Replaces a reified type argument with an equal instance, such as its canonical instance when interning.
+     */
+  /* package-private */ void setReifiedTypeArgument(int index, Type type) {
+      checkNotFrozen();
+      reifiedTypeArguments[index] = type;
+    }
+
+    /**
+     * Makes this type, and the reified types among its type arguments, immutable, computing the hash code that is used
+     * from then on.
+     * @return this type
+     */
+  /* package-private */ ReifiedParameterizedType freeze() {
+      if (frozen) {
+        return this;
+      }
+      // Frozen first, so that arguments which refer back to this type do not freeze it again
+      frozen = true;
+      for (Type argument : reifiedTypeArguments) {
+        if (argument instanceof ReifiedParameterizedType) {
+          ((ReifiedParameterizedType) argument).freeze();
+        }
+      }
+      hash = computeHashCode();
+      return this;
+    }
+
+    private void checkNotFrozen() {
+      if (frozen) {
+        throw new IllegalStateException("Reified type is frozen");
+      }
+    }
+
+    /**
+     * Returns whether any of the type arguments refers back to this type.
+     */
+  /* package-private */ boolean isSelfReferential() {
+      for (boolean selfReference : loop) {
+        if (selfReference) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns the parameterized type that this type was reified from.
+     */
+  /* package-private */ ParameterizedType original() {
+      return original;
+    }
+
+    /**
+     * Returns the reified type arguments without copying them, for callers that do not modify them.
+     */
+  /* package-private */ Type[] reifiedTypeArguments() {
+      return reifiedTypeArguments;
+    }
+
     @Override
     public Type[] getActualTypeArguments() {
-      return reifiedTypeArguments;
+      // Instances may be shared once interned, so callers are given a copy
+      return Arrays.copyOf(reifiedTypeArguments, reifiedTypeArguments.length);
     }
 
     @Override
@@ -53,9 +138,20 @@ class ReifiedParameterizedType implements ParameterizedType {
      */
     @Override
     public String toString() {
+      String result = string;
+      if (result == null) {
+        result = buildString();
+        if (frozen) {
+          string = result;
+        }
+      }
+      return result;
+    }
+
+    private String buildString() {
       final Type ownerType = getOwnerType();
       final Type rawType = getRawType();
-      final Type[] actualTypeArguments = getActualTypeArguments();
+      final Type[] actualTypeArguments = reifiedTypeArguments;
 
       final StringBuilder sb = new StringBuilder();
 
@@ -113,49 +209,106 @@ class ReifiedParameterizedType implements ParameterizedType {
       return sb.toString();
     }
 
+    /**
+     * Compares this type to a {@link ParameterizedType} by raw type, owner type and type arguments, as the JDK's
+     * implementation does. Type arguments that refer back to their own type are only equal to type arguments of
+     * another reified type that do the same.
+     */
     @Override
     public boolean equals(Object o) {
+      return equals(o, null);
+    }
+
+    /**
+     * Compares this type to {@code o} while the {@code comparing} pairs of enclosing types are being compared. Types
+     * that refer back to an enclosing type through another type argument form a cycle, so a pair that is already being
+     * compared is taken to be equal instead of being compared again, since any difference is found by the enclosing
+     * comparison.
+     */
+    private boolean equals(Object o, Comparison comparing) {
       if (this == o) {
         return true;
       }
-      if (o == null || getClass() != o.getClass()) {
+      for (Comparison c = comparing; c != null; c = c.enclosing) {
+        if (c.type == this && c.other == o) {
+          return true;
+        }
+      }
+      if (!(o instanceof ParameterizedType)) {
         return false;
       }
 
-      ReifiedParameterizedType that = (ReifiedParameterizedType) o;
-      if (!original.equals(that.original)) {
+      ReifiedParameterizedType reifiedThat = o instanceof ReifiedParameterizedType ? (ReifiedParameterizedType) o : null;
+      if (reifiedThat != null && frozen && reifiedThat.frozen && hash != reifiedThat.hash) {
         return false;
       }
 
-      if (reifiedTypeArguments.length != that.reifiedTypeArguments.length) {
+      ParameterizedType that = (ParameterizedType) o;
+      if (!equal(getRawType(), that.getRawType()) || !equal(getOwnerType(), that.getOwnerType())) {
         return false;
       }
 
+      Type[] thatTypeArguments = reifiedThat != null ? reifiedThat.reifiedTypeArguments : that.getActualTypeArguments();
+      if (reifiedTypeArguments.length != thatTypeArguments.length) {
+        return false;
+      }
+
+      Comparison comparison = null;
       for (int i = 0; i < reifiedTypeArguments.length; i++) {
-        if (loop[i] != that.loop[i]) {
-          return false;
-        }
-        if (loop[i]) {
+        boolean thatLoop = reifiedThat != null && reifiedThat.loop[i];
+        if (loop[i] || thatLoop) {
+          if (loop[i] != thatLoop) {
+            return false;
+          }
           continue;
         }
-        if (reifiedTypeArguments[i] != that.reifiedTypeArguments[i]) {
+        Type argument = reifiedTypeArguments[i];
+        if (argument instanceof ReifiedParameterizedType) {
+          if (comparison == null) {
+            comparison = new Comparison(this, o, comparing);
+          }
+          if (!((ReifiedParameterizedType) argument).equals(thatTypeArguments[i], comparison)) {
+            return false;
+          }
+        } else if (!equal(argument, thatTypeArguments[i])) {
           return false;
         }
       }
       return true;
     }
 
+    /** A pair of types being compared, linked to the pair whose type arguments they are. */
+    private static final class Comparison {
+      final ReifiedParameterizedType type;
+      final Object other;
+      final Comparison enclosing;
+
+      Comparison(ReifiedParameterizedType type, Object other, Comparison enclosing) {
+        this.type = type;
+        this.other = other;
+        this.enclosing = enclosing;
+      }
+    }
+
+    /**
+     * Returns the same hash code as the JDK's implementation would for an equal type.
+     */
     @Override
     public int hashCode() {
-      int result = original.hashCode();
+      return frozen ? hash : computeHashCode();
+    }
+
+    private int computeHashCode() {
+      int argumentsHash = 1;
       for (int i = 0; i < reifiedTypeArguments.length; i++) {
-        if (loop[i]) {
-          continue;
-        }
-        if (reifiedTypeArguments[i] instanceof ReifiedParameterizedType) {
-          result = 31 * result + reifiedTypeArguments[i].hashCode();
-        }
+        Type argument = reifiedTypeArguments[i];
+        argumentsHash = 31 * argumentsHash + (loop[i] || argument == null ? 0 : argument.hashCode());
       }
-      return result;
+      Type ownerType = getOwnerType();
+      return argumentsHash ^ (ownerType == null ? 0 : ownerType.hashCode()) ^ getRawType().hashCode();
+    }
+
+    private static boolean equal(Object a, Object b) {
+      return a == null ? b == null : a.equals(b);
     }
-  }
\ No newline at end of file
+  }
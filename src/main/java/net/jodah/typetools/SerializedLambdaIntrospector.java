@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.io.Serializable;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+
+import sun.misc.Unsafe;
+
+/**
+ * Finds the member a serializable lambda delegates to via the {@code SerializedLambda} its {@code writeReplace} method
+ * returns, which names the implementation method directly. Since {@code writeReplace} is an instance method, it is
+ * invoked on an instance that is allocated without running a constructor, leaving any captured arguments unset.
+ * Lambdas that are not serializable are left to other backends.
+ */
+@SuppressWarnings("restriction")
+final class SerializedLambdaIntrospector extends LambdaIntrospector {
+  static final String NAME = "serialized-lambda";
+  /** The {@code MethodHandleInfo.REF_newInvokeSpecial} reference kind, for constructor references */
+  private static final int REF_NEW_INVOKE_SPECIAL = 8;
+
+  private final Unsafe unsafe;
+
+  private SerializedLambdaIntrospector(Unsafe unsafe) {
+    this.unsafe = unsafe;
+  }
+
+  /**
+   * Returns an introspector for serializable lambdas, else throws if {@code SerializedLambda} is unavailable.
+   */
+  static SerializedLambdaIntrospector probe() throws Exception {
+    Class.forName("java.lang.invoke.SerializedLambda");
+    return new SerializedLambdaIntrospector(getUnsafe());
+  }
+
+  @Override
+  String name() {
+    return NAME;
+  }
+
+  @Override
+  Member getMemberRef(Class<?> type) {
+    // Only the JDK's lambda classes are known to have a writeReplace that is safe to call on an unconstructed instance
+    if (!isLambda(type) || !Serializable.class.isAssignableFrom(type))
+      return null;
+
+    try {
+      Method writeReplace = type.getDeclaredMethod("writeReplace");
+      writeReplace.setAccessible(true);
+      Object replacement = writeReplace.invoke(unsafe.allocateInstance(type));
+      if (!(replacement instanceof SerializedLambda))
+        return null;
+
+      SerializedLambda serializedLambda = (SerializedLambda) replacement;
+      String implClassName = serializedLambda.getImplClass().replace('/', '.');
+      String implMethodName = serializedLambda.getImplMethodName();
+      String implMethodSignature = serializedLambda.getImplMethodSignature();
+      int implMethodKind = serializedLambda.getImplMethodKind();
+      Class<?> implClass = Class.forName(implClassName, false, type.getClassLoader());
+
+      if (implMethodKind == REF_NEW_INVOKE_SPECIAL) {
+        for (Constructor<?> constructor : implClass.getDeclaredConstructors())
+          if (implMethodSignature.equals(descriptorOf(constructor.getParameterTypes(), void.class)))
+            return constructor;
+      } else {
+        for (Method method : implClass.getDeclaredMethods())
+          if (method.getName().equals(implMethodName)
+              && implMethodSignature.equals(descriptorOf(method.getParameterTypes(), method.getReturnType())))
+            return method;
+      }
+    } catch (Throwable ignore) {
+      // Leave the lambda to other backends
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns whether the {@code type} is a class that the JDK spun for a lambda or method reference, which are named
+   * after their capturing class followed by {@code $$Lambda}.
+   */
+  private static boolean isLambda(Class<?> type) {
+    return type.isSynthetic() && type.getName().contains("$$Lambda");
+  }
+
+  /**
+   * Returns the JVM method descriptor for the {@code parameterTypes} and {@code returnType}, such as
+   * {@code (Ljava/lang/String;I)V}.
+   */
+  private static String descriptorOf(Class<?>[] parameterTypes, Class<?> returnType) {
+    StringBuilder sb = new StringBuilder().append('(');
+    for (Class<?> parameterType : parameterTypes)
+      appendDescriptor(sb, parameterType);
+    return appendDescriptor(sb.append(')'), returnType).toString();
+  }
+
+  private static StringBuilder appendDescriptor(StringBuilder sb, Class<?> type) {
+    if (type.isArray())
+      return sb.append(type.getName().replace('.', '/'));
+    if (!type.isPrimitive())
+      return sb.append('L').append(type.getName().replace('.', '/')).append(';');
+    if (type == void.class)
+      return sb.append('V');
+    if (type == boolean.class)
+      return sb.append('Z');
+    if (type == long.class)
+      return sb.append('J');
+    return sb.append(Character.toUpperCase(type.getName().charAt(0)));
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+/**
+ * A parameterized type created from its parts, which follows the equality contract of the JDK's own implementation.
+ */
+final class SimpleParameterizedType implements ParameterizedType {
+  private final Class<?> rawType;
+  private final Type ownerType;
+  private final Type[] typeArguments;
+
+  SimpleParameterizedType(Class<?> rawType, Type ownerType, Type[] typeArguments) {
+    this.rawType = rawType;
+    this.ownerType = ownerType;
+    this.typeArguments = typeArguments;
+  }
+
+  @Override
+  public Type[] getActualTypeArguments() {
+    return typeArguments.clone();
+  }
+
+  @Override
+  public Type getRawType() {
+    return rawType;
+  }
+
+  @Override
+  public Type getOwnerType() {
+    return ownerType;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof ParameterizedType))
+      return false;
+
+    ParameterizedType other = (ParameterizedType) obj;
+    return rawType.equals(other.getRawType())
+        && (ownerType == null ? other.getOwnerType() == null : ownerType.equals(other.getOwnerType()))
+        && Arrays.equals(typeArguments, other.getActualTypeArguments());
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(typeArguments) ^ (ownerType == null ? 0 : ownerType.hashCode()) ^ rawType.hashCode();
+  }
+
+  /**
+   * Keep this consistent with {@link sun.reflect.generics.reflectiveObjects.ParameterizedTypeImpl#toString}
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    if (ownerType != null) {
+      sb.append(ownerType.getTypeName()).append('$').append(rawType.getSimpleName());
+    } else {
+      sb.append(rawType.getName());
+    }
+
+    if (typeArguments.length > 0) {
+      sb.append('<');
+      for (int i = 0; i < typeArguments.length; i++) {
+        if (i > 0)
+          sb.append(", ");
+        sb.append(typeArguments[i].getTypeName());
+      }
+      sb.append('>');
+    }
+
+    return sb.toString();
+  }
+}
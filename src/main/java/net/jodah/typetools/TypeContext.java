@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.reflect.Type;
+
+import net.jodah.typetools.TypeResolver.Unknown;
+
+/**
+ * Resolves types using the type variable information from one class, as obtained via
+ * {@link TypeResolver#context(Class)}. The information is looked up once, when the context is created, so that
+ * resolving many types against the same class, such as the generic types of all of its members, does not consult the
+ * cache for each of them. A context is immutable and may be shared between threads.
+ *
+ * <p>
+ * A context keeps the type variable information it was created with, regardless of whether the cache is later
+ * disabled or cleared.
+ */
+public final class TypeContext {
+  private final Type genericType;
+  private final Class<?> type;
+  private final TypeVariableMap typeVariableMap;
+
+  TypeContext(Class<?> type, TypeVariableMap typeVariableMap) {
+    this(type, type, typeVariableMap);
+  }
+
+  TypeContext(Type genericType, Class<?> type, TypeVariableMap typeVariableMap) {
+    this.genericType = genericType;
+    this.type = type;
+    this.typeVariableMap = typeVariableMap;
+  }
+
+  /**
+   * Returns the class whose type variable information this context resolves types with, which is the raw type of a
+   * parameterized context.
+   */
+  public Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * Returns the class or parameterized type that this context was created for.
+   */
+  public Type getGenericType() {
+    return genericType;
+  }
+
+  TypeVariableMap typeVariableMap() {
+    return typeVariableMap;
+  }
+
+  /**
+   * Traverses the {@code genericType} and replaces all type variables and wildcard types with concrete types (if
+   * possible), as described by {@link TypeResolver#reify(Type, Class)}.
+   *
+   * @param genericType the generic type to traverse
+   * @return a type that is structurally the same as {@code genericType}, except that type variables and wildcard types
+   *         have been replaced with concrete types
+   * @throws UnsupportedOperationException if {@code genericType} cannot be reified, as described by
+   *         {@link TypeResolver#reify(Type, Class)}
+   */
+  public Type reify(Type genericType) {
+    return TypeResolver.reify(genericType, typeVariableMap);
+  }
+
+  /**
+   * Walks the {@code genericType} and passes each resolved node to the {@code visitor}, as described by
+   * {@link TypeResolver#visit(Type, Class, TypeVisitor)}.
+   *
+   * @param genericType the generic type to walk
+   * @param visitor to pass resolved nodes to
+   * @throws UnsupportedOperationException if {@code genericType} cannot be reified, as described by
+   *         {@link TypeResolver#reify(Type, Class)}
+   */
+  public void visit(Type genericType, TypeVisitor visitor) {
+    TypeWalker.walk(genericType, typeVariableMap, visitor);
+  }
+
+  /**
+   * Resolves the raw class for the {@code genericType} else {@link Unknown} if the raw class cannot be resolved, as
+   * described by {@link TypeResolver#resolveRawClass(Type, Class)}.
+   *
+   * @param genericType to resolve raw class for
+   * @return raw class for the {@code genericType} else {@link Unknown} if it cannot be resolved
+   */
+  public Class<?> resolveRawClass(Type genericType) {
+    return TypeResolver.resolveRawClass(genericType, typeVariableMap);
+  }
+
+  /**
+   * Returns the raw class representing the argument for the {@code genericType}, as described by
+   * {@link TypeResolver#resolveRawArgument(Type, Class)}.
+   *
+   * @param genericType to resolve argument for
+   * @return argument for {@code genericType} else {@link Unknown}.class if no type arguments are declared
+   * @throws IllegalArgumentException if more or less than one argument is resolved for the {@code genericType}
+   */
+  public Class<?> resolveRawArgument(Type genericType) {
+    return TypeResolver.singleRawArgument(genericType, resolveRawArguments(genericType));
+  }
+
+  /**
+   * Returns an array of raw classes representing arguments for the {@code genericType}, as described by
+   * {@link TypeResolver#resolveRawArguments(Type, Class)}.
+   *
+   * @param genericType to resolve arguments for
+   * @return array of raw classes representing arguments for the {@code genericType} else {@code null} if no type
+   *         arguments are declared
+   */
+  public Class<?>[] resolveRawArguments(Type genericType) {
+    if (genericType == null)
+      return null;
+
+    return TypeResolver.computeRawArguments(genericType, typeVariableMap);
+  }
+
+  @Override
+  public String toString() {
+    return "TypeContext[" + genericType.getTypeName() + "]";
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interns reified types, so that structurally equal reified types are represented by one canonical instance and
+ * reified types that share arguments share their canonical instances. Canonical instances are only weakly referenced,
+ * so that they, and the classes they refer to, can be collected once they are no longer used elsewhere. Lookups do not
+ * lock, and entries whose types have been collected are purged as new types are interned.
+ *
+ * <p>
+ * Self-referential types, and types with self-referential arguments, are not interned.
+ */
+final class TypeInterner {
+  private final ConcurrentMap<Canonical, Canonical> canonicals = new ConcurrentHashMap<Canonical, Canonical>();
+  private final ReferenceQueue<ReifiedParameterizedType> collected = new ReferenceQueue<ReifiedParameterizedType>();
+
+  /**
+   * A weak reference to a canonical instance, which equals references to equal types. A reference whose type has been
+   * collected only equals itself, so that it can still be removed.
+   */
+  private static final class Canonical extends WeakReference<ReifiedParameterizedType> {
+    private final int hash;
+
+    Canonical(ReifiedParameterizedType type, ReferenceQueue<ReifiedParameterizedType> queue) {
+      super(type, queue);
+      hash = type.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (!(obj instanceof Canonical) || hash != ((Canonical) obj).hash)
+        return false;
+      ReifiedParameterizedType type = get();
+      return type != null && type.equals(((Canonical) obj).get());
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Returns the canonical instance of the {@code type} if it is a reified type that can be interned, else the
+   * {@code type}, which is frozen if it is a reified type. The {@code type} must not be shared yet, since its arguments
+   * are replaced by their canonical instances.
+   */
+  Type intern(Type type) {
+    if (type instanceof ReifiedParameterizedType) {
+      ReifiedParameterizedType reified = (ReifiedParameterizedType) type;
+      ReifiedParameterizedType canonical = intern(reified);
+      return canonical != null ? canonical : reified.freeze();
+    }
+
+    return type;
+  }
+
+  /**
+   * Returns the canonical instance of the {@code type}, interning it and its arguments and freezing them, else
+   * {@code null} if it or any of its arguments is self-referential.
+   */
+  private ReifiedParameterizedType intern(ReifiedParameterizedType type) {
+    // Self-references are checked before visiting arguments, since every cycle passes through a self-referential type
+    if (type.isSelfReferential())
+      return null;
+
+    Type[] arguments = type.reifiedTypeArguments();
+    for (int i = 0; i < arguments.length; i++) {
+      if (arguments[i] instanceof ReifiedParameterizedType) {
+        ReifiedParameterizedType argument = intern((ReifiedParameterizedType) arguments[i]);
+        if (argument == null)
+          return null;
+        if (argument != arguments[i])
+          type.setReifiedTypeArgument(i, argument);
+      }
+    }
+
+    Canonical reference = new Canonical(type.freeze(), collected);
+    Canonical existing = canonicals.get(reference);
+    ReifiedParameterizedType canonical = existing == null ? null : existing.get();
+    if (canonical != null)
+      return canonical;
+
+    purge();
+    while (true) {
+      existing = canonicals.putIfAbsent(reference, reference);
+      if (existing == null)
+        return type;
+      canonical = existing.get();
+      if (canonical != null)
+        return canonical;
+      // The existing type was collected after it was found, so its entry is replaced
+      canonicals.remove(existing, existing);
+    }
+  }
+
+  /**
+   * Removes the entries of types that have been collected.
+   */
+  private void purge() {
+    for (Reference<? extends ReifiedParameterizedType> reference; (reference = collected.poll()) != null;)
+      canonicals.remove(reference);
+  }
+
+  /**
+   * Returns the number of interned types that have not been collected.
+   */
+  int size() {
+    purge();
+    return canonicals.size();
+  }
+}
@@ -15,11 +15,6 @@
  */
 package net.jodah.typetools;
 
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.lang.ref.Reference;
-import java.lang.ref.WeakReference;
-import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -31,119 +26,119 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
-import java.security.AccessController;
-import java.security.PrivilegedExceptionAction;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
-
-import sun.misc.Unsafe;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * Enhanced type resolution utilities.
  *
  * @author Jonathan Halterman
  */
-@SuppressWarnings("restriction")
 public final class TypeResolver {
   /** Cache of type variable/argument pairs */
-  private static final Map<Class<?>, Reference<Map<TypeVariable<?>, Type>>> TYPE_VARIABLE_CACHE = Collections
-      .synchronizedMap(new WeakHashMap<Class<?>, Reference<Map<TypeVariable<?>, Type>>>());
+  private static final ClassCache<TypeVariableMap> TYPE_VARIABLE_CACHE = ClassCache.create();
+  private static final ClassCache.Loader<TypeVariableMap> TYPE_VARIABLE_LOADER =
+      new ClassCache.Loader<TypeVariableMap>() {
+    @Override
+    public TypeVariableMap load(Class<?> type) {
+      return buildTypeVariableMap(type, null, null);
+    }
+  };
+  /**
+   * Cache of the type variable/argument pairs that a class passes on to its subclasses. Arguments that refer to type
+   * variables the class leaves unbound are kept as those type variables, so that subclasses can bind them.
+   */
+  private static final ClassCache<TypeVariableMap> INHERITED_TYPE_VARIABLE_CACHE = ClassCache.create();
+  private static final ClassCache.Loader<TypeVariableMap> INHERITED_TYPE_VARIABLE_LOADER =
+      new ClassCache.Loader<TypeVariableMap>() {
+    @Override
+    public TypeVariableMap load(Class<?> type) {
+      return buildInheritedTypeVariableMap(type, null);
+    }
+  };
+  /** Cache of lambda member references and resolutions, keyed by lambda class and then by functional interface */
+  private static final ClassCache<LambdaInfo> LAMBDA_CACHE = ClassCache.create();
+  private static final ClassCache.Loader<LambdaInfo> LAMBDA_LOADER = new ClassCache.Loader<LambdaInfo>() {
+    @Override
+    public LambdaInfo load(Class<?> type) {
+      return new LambdaInfo(LambdaIntrospector.get().getMemberRef(type));
+    }
+  };
+  /** Cache of resolved raw arguments, keyed by sub type and then by generic type */
+  private static final ClassCache<GenericTypeCache<RawArguments>> ARGUMENTS_CACHE = ClassCache.create();
+  private static final ClassCache.Loader<GenericTypeCache<RawArguments>> ARGUMENTS_LOADER =
+      new ClassCache.Loader<GenericTypeCache<RawArguments>>() {
+    @Override
+    public GenericTypeCache<RawArguments> load(Class<?> type) {
+      return new GenericTypeCache<RawArguments>();
+    }
+  };
+  /** Cache of resolved type shapes, keyed by context and then by generic type */
+  private static final ClassCache<GenericTypeCache<TypeShape>> SHAPE_CACHE = ClassCache.create();
+  private static final ClassCache.Loader<GenericTypeCache<TypeShape>> SHAPE_LOADER =
+      new ClassCache.Loader<GenericTypeCache<TypeShape>>() {
+    @Override
+    public GenericTypeCache<TypeShape> load(Class<?> type) {
+      return new GenericTypeCache<TypeShape>();
+    }
+  };
+  /** Cache of indexed generic supertypes, keyed by sub type */
+  private static final ClassCache<SupertypeIndex> SUPERTYPE_CACHE = ClassCache.create();
+  private static final ClassCache.Loader<SupertypeIndex> SUPERTYPE_LOADER = new ClassCache.Loader<SupertypeIndex>() {
+    @Override
+    public SupertypeIndex load(Class<?> type) {
+      return new SupertypeIndex(type);
+    }
+  };
+  /** Cache of reified member models, keyed by class */
+  private static final ClassCache<ReifiedMembers> MEMBERS_CACHE = ClassCache.create();
+  private static final ClassCache.Loader<ReifiedMembers> MEMBERS_LOADER = new ClassCache.Loader<ReifiedMembers>() {
+    @Override
+    public ReifiedMembers load(Class<?> type) {
+      return ReifiedMembers.build(type, newContext(type));
+    }
+  };
+  /** Canonical instances of reified types, which are weakly referenced */
+  static final TypeInterner REIFIED_TYPES = new TypeInterner();
+  /** Cache of array classes, keyed by component type */
+  private static final ClassCache<Class<?>> ARRAY_CLASS_CACHE = ClassCache.create();
+  private static final ClassCache.Loader<Class<?>> ARRAY_CLASS_LOADER = new ClassCache.Loader<Class<?>>() {
+    @Override
+    public Class<?> load(Class<?> type) {
+      return Array.newInstance(type, 0).getClass();
+    }
+  };
   private static volatile boolean CACHE_ENABLED = true;
-  private static boolean RESOLVES_LAMBDAS;
-  private static Object JAVA_LANG_ACCESS;
-  private static Method GET_CONSTANT_POOL;
-  private static Method GET_CONSTANT_POOL_SIZE;
-  private static Method GET_CONSTANT_POOL_METHOD_AT;
-  private static final Map<String, Method> OBJECT_METHODS = new HashMap<String, Method>();
+  private static volatile CacheRetention CACHE_RETENTION = CacheRetention.CLASS;
+  private static volatile int CACHE_MAXIMUM_SIZE = ClassCache.UNBOUNDED;
   private static final Map<Class<?>, Class<?>> PRIMITIVE_WRAPPERS;
-  private static final Double JAVA_VERSION;
+  static final Double JAVA_VERSION;
 
   static {
     JAVA_VERSION = Double.parseDouble(System.getProperty("java.specification.version", "0"));
 
     try {
-      final Unsafe unsafe = AccessController.doPrivileged(new PrivilegedExceptionAction<Unsafe>() {
-        @Override
-        public Unsafe run() throws Exception {
-          final Field f = Unsafe.class.getDeclaredField("theUnsafe");
-          f.setAccessible(true);
-
-          return (Unsafe) f.get(null);
-        }
-      });
-
-      Class<?> sharedSecretsClass;
-      AccessMaker accessSetter;
-      if (JAVA_VERSION < 9) {
-        sharedSecretsClass = Class.forName("sun.misc.SharedSecrets");
-        // Java 8 and lower can simply call setAccessible
-        accessSetter = new AccessMaker() {
-          @Override
-          public void makeAccessible(AccessibleObject accessibleObject) {
-            accessibleObject.setAccessible(true);
-          }
-        };
-      } else if (JAVA_VERSION < 12) {
-          try {
-            sharedSecretsClass = Class.forName("jdk.internal.misc.SharedSecrets");
-          } catch (ClassNotFoundException e) {
-            // In Oracle JDK 11.0.6, SharedSecrets was moved from jdk.internal.misc to jdk.internal.access.
-            sharedSecretsClass = Class.forName("jdk.internal.access.SharedSecrets");
-          }
-          // access control got strengthed in Java 9, but can be circumvented with Unsafe.
-          Field overrideField = AccessibleObject.class.getDeclaredField("override");
-          final long overrideFieldOffset = unsafe.objectFieldOffset(overrideField);
-          accessSetter = new AccessMaker() {
-            @Override
-            public void makeAccessible(AccessibleObject accessibleObject) {
-              unsafe.putBoolean(accessibleObject, overrideFieldOffset, true);
-            }
-        };
-      } else {
-          sharedSecretsClass = Class.forName("jdk.internal.access.SharedSecrets");
-          // In Java 12, AccessibleObject.override was added to the reflection blacklist.
-          // Access checking can still be circumvented by using the Unsafe technique to get the implementation lookup from MethodHandles.
-          Field implLookupField = MethodHandles.Lookup.class.getDeclaredField("IMPL_LOOKUP");
-          long implLookupFieldOffset = unsafe.staticFieldOffset(implLookupField);
-          Object lookupStaticFieldBase = unsafe.staticFieldBase(implLookupField);
-          MethodHandles.Lookup implLookup = (MethodHandles.Lookup) unsafe.getObject(lookupStaticFieldBase, implLookupFieldOffset);
-          final MethodHandle overrideSetter = implLookup.findSetter(AccessibleObject.class, "override", boolean.class);
-          accessSetter = new AccessMaker() {
-            @Override
-            public void makeAccessible(AccessibleObject object) throws Throwable {
-              overrideSetter.invokeWithArguments(new Object[] {object, true});
-            }
-        };
-      }
-      Method javaLangAccessGetter = sharedSecretsClass.getMethod("getJavaLangAccess");
-      accessSetter.makeAccessible(javaLangAccessGetter);
-      JAVA_LANG_ACCESS = javaLangAccessGetter.invoke(null);
-      GET_CONSTANT_POOL = JAVA_LANG_ACCESS.getClass().getMethod("getConstantPool", Class.class);
-
-      String constantPoolName = JAVA_VERSION < 9 ? "sun.reflect.ConstantPool" : "jdk.internal.reflect.ConstantPool";
-      Class<?> constantPoolClass = Class.forName(constantPoolName);
-      GET_CONSTANT_POOL_SIZE = constantPoolClass.getDeclaredMethod("getSize");
-      GET_CONSTANT_POOL_METHOD_AT = constantPoolClass.getDeclaredMethod("getMethodAt", int.class);
-
-      // setting the methods as accessible
-      accessSetter.makeAccessible(GET_CONSTANT_POOL);
-      accessSetter.makeAccessible(GET_CONSTANT_POOL_SIZE);
-      accessSetter.makeAccessible(GET_CONSTANT_POOL_METHOD_AT);
-
-      // additional checks - make sure we get a result when invoking the Class::getConstantPool and
-      // ConstantPool::getSize on a class
-      Object constantPool = GET_CONSTANT_POOL.invoke(JAVA_LANG_ACCESS, Object.class);
-      GET_CONSTANT_POOL_SIZE.invoke(constantPool);
-
-      for (Method method : Object.class.getDeclaredMethods())
-        OBJECT_METHODS.put(method.getName(), method);
-
-      RESOLVES_LAMBDAS = true;
-    } catch (Throwable ignore) {
+      String retention = System.getProperty("net.jodah.typetools.cache.retention");
+      if (retention != null)
+        CACHE_RETENTION = CacheRetention.valueOf(retention.trim().toUpperCase());
+      String maximumSize = System.getProperty("net.jodah.typetools.cache.maximumSize");
+      if (maximumSize != null && Integer.parseInt(maximumSize.trim()) > 0)
+        CACHE_MAXIMUM_SIZE = Integer.parseInt(maximumSize.trim());
+    } catch (RuntimeException ignore) {
+      // Fall back to the defaults for invalid or inaccessible properties
     }
+    configureCaches();
 
     Map<Class<?>, Class<?>> types = new HashMap<Class<?>, Class<?>>();
     types.put(boolean.class, Boolean.class);
@@ -157,17 +152,31 @@ public final class TypeResolver {
     types.put(void.class, Void.class);
     PRIMITIVE_WRAPPERS = Collections.unmodifiableMap(types);
   }
-  
-  private interface AccessMaker {
-    void makeAccessible(AccessibleObject object) throws Throwable;
-  }
-  
+
   /** An unknown type. */
   public static final class Unknown {
     private Unknown() {
     }
   }
 
+  /**
+   * Determines how long resolved type information is retained by the cache. The default can be set per deployment via
+   * the {@code net.jodah.typetools.cache.retention} system property, using one of the constant names, and the number of
+   * retained entries can be bounded via the {@code net.jodah.typetools.cache.maximumSize} system property.
+   */
+  public enum CacheRetention {
+    /**
+     * Cached information is retained for as long as the class it describes is loaded. This is the default. Information
+     * about classes from class loaders that are neither typetools' own loader nor related to it, such as sibling
+     * loaders, is weakly referenced instead, so that it does not keep those classes from being unloaded.
+     */
+    CLASS,
+    /** Cached information is softly referenced, and may be reclaimed when the JVM is low on memory. */
+    SOFT,
+    /** Cached information is weakly referenced, and may be reclaimed by any garbage collection. */
+    WEAK
+  }
+
   private TypeResolver() {
   }
 
@@ -178,14 +187,91 @@ public final class TypeResolver {
     CACHE_ENABLED = true;
   }
 
+  /**
+   * Enables the internal caching of resolved TypeVariables, retaining cached information according to the
+   * {@code retention}. Any previously cached information is cleared.
+   *
+   * @param retention how long cached information is retained
+   * @throws NullPointerException if {@code retention} is null
+   */
+  public static void enableCache(CacheRetention retention) {
+    setCachePolicy(retention, ClassCache.UNBOUNDED);
+  }
+
+  /**
+   * Enables the internal caching of resolved TypeVariables, retaining cached information according to the
+   * {@code retention} for at most {@code maximumSize} classes per cache. When the maximum size is exceeded, information
+   * for the least recently cached classes is evicted first. Any previously cached information is cleared.
+   *
+   * @param retention how long cached information is retained
+   * @param maximumSize the maximum number of classes to retain information for
+   * @throws NullPointerException if {@code retention} is null
+   * @throws IllegalArgumentException if {@code maximumSize} is less than 1
+   */
+  public static void enableCache(CacheRetention retention, int maximumSize) {
+    if (maximumSize < 1)
+      throw new IllegalArgumentException("maximumSize must be greater than 0");
+    setCachePolicy(retention, maximumSize);
+  }
+
   /**
    * Disables the internal caching of resolved TypeVariables.
    */
   public static void disableCache() {
     TYPE_VARIABLE_CACHE.clear();
+    INHERITED_TYPE_VARIABLE_CACHE.clear();
+    LAMBDA_CACHE.clear();
+    ARGUMENTS_CACHE.clear();
+    SHAPE_CACHE.clear();
+    SUPERTYPE_CACHE.clear();
+    MEMBERS_CACHE.clear();
+    ARRAY_CLASS_CACHE.clear();
     CACHE_ENABLED = false;
   }
 
+  private static void setCachePolicy(CacheRetention retention, int maximumSize) {
+    if (retention == null)
+      throw new NullPointerException("retention");
+
+    CACHE_RETENTION = retention;
+    CACHE_MAXIMUM_SIZE = maximumSize;
+    configureCaches();
+    CACHE_ENABLED = true;
+  }
+
+  private static void configureCaches() {
+    TYPE_VARIABLE_CACHE.configure(CACHE_RETENTION, CACHE_MAXIMUM_SIZE);
+    INHERITED_TYPE_VARIABLE_CACHE.configure(CACHE_RETENTION, CACHE_MAXIMUM_SIZE);
+    LAMBDA_CACHE.configure(CACHE_RETENTION, CACHE_MAXIMUM_SIZE);
+    ARGUMENTS_CACHE.configure(CACHE_RETENTION, CACHE_MAXIMUM_SIZE);
+    SHAPE_CACHE.configure(CACHE_RETENTION, CACHE_MAXIMUM_SIZE);
+    SUPERTYPE_CACHE.configure(CACHE_RETENTION, CACHE_MAXIMUM_SIZE);
+    MEMBERS_CACHE.configure(CACHE_RETENTION, CACHE_MAXIMUM_SIZE);
+    ARRAY_CLASS_CACHE.configure(CACHE_RETENTION, CACHE_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Returns the name of the backend used to resolve the type arguments of lambdas and method references, else
+   * {@code null} if they cannot be resolved on this JVM. Backends are probed on the first lambda resolution, or on the
+   * first call to this method.
+   *
+   * @see #getLambdaIntrospectorProbeNanos()
+   */
+  public static String getLambdaIntrospector() {
+    LambdaIntrospector introspector = LambdaIntrospector.get();
+    return introspector == null ? null : introspector.name();
+  }
+
+  /**
+   * Returns how long, in nanoseconds, probing for the backend used to resolve lambdas and method references took.
+   * Backends are probed on the first lambda resolution, or on the first call to this method.
+   *
+   * @see #getLambdaIntrospector()
+   */
+  public static long getLambdaIntrospectorProbeNanos() {
+    return LambdaIntrospector.probeNanos();
+  }
+
   /**
    * Returns the raw class representing the argument for the {@code type} using type variable information from the
    * {@code subType}. If no arguments can be resolved then {@code Unknown.class} is returned.
@@ -210,7 +296,14 @@ public final class TypeResolver {
    * @throws IllegalArgumentException if more or less than one argument is resolved for the {@code genericType}
    */
   public static Class<?> resolveRawArgument(Type genericType, Class<?> subType) {
-    Class<?>[] arguments = resolveRawArguments(genericType, subType);
+    return singleRawArgument(genericType, getRawArguments(genericType, subType).array);
+  }
+
+  /**
+   * Returns the only one of the {@code arguments} resolved for the {@code genericType}, else {@link Unknown}.class if
+   * no arguments were resolved.
+   */
+  static Class<?> singleRawArgument(Type genericType, Class<?>[] arguments) {
     if (arguments == null)
       return Unknown.class;
 
@@ -285,6 +378,9 @@ public final class TypeResolver {
    * Note that type variables with no explicit upper bound are reified to {@link Object}, and {@code Unknown.class} is
    * never returned.
    *
+   * Reified parameterized types are interned, so reifying structurally equal types returns the same instance, and
+   * equal type arguments are shared, unless a type refers to itself.
+   *
    * @param type the generic type to traverse
    * @param context the class that serves as starting point to resolve replacements of type variables
    * @return a type that is structurally the same as {@code type}, except that type variables and wildcard types
@@ -333,7 +429,34 @@ public final class TypeResolver {
    *         whose generic component type cannot be reified to an instance of {@link Class}.
    */
   public static Type reify(Type type) {
-    return reify(type, new HashMap<TypeVariable<?>, Type>(0));
+    return reify(type, TypeVariableMap.EMPTY);
+  }
+
+  /**
+   * Walks the {@code type} depth first, resolving type variables and wildcard types as {@link #reify(Type, Class)} does
+   * using the type information from the given {@code context}, and passes each resolved node to the {@code visitor}.
+   * Unlike reifying the {@code type} and traversing the result, no reified types are created.
+   *
+   * @param type the generic type to walk
+   * @param context the class that serves as starting point to resolve replacements of type variables
+   * @param visitor to pass resolved nodes to
+   * @throws UnsupportedOperationException if {@code type} cannot be reified, as described by
+   *         {@link #reify(Type, Class)}, in which case the nodes before the failing one have already been visited
+   */
+  public static void visit(Type type, Class<?> context, TypeVisitor visitor) {
+    TypeWalker.walk(type, getTypeVariableMap(context, null), visitor);
+  }
+
+  /**
+   * Walks the {@code type} depth first, resolving type variables and wildcard types as {@link #reify(Type)} does, and
+   * passes each resolved node to the {@code visitor}, as described by {@link #visit(Type, Class, TypeVisitor)}.
+   *
+   * @param type the generic type to walk
+   * @param visitor to pass resolved nodes to
+   * @throws UnsupportedOperationException if {@code type} cannot be reified, as described by {@link #reify(Type)}
+   */
+  public static void visit(Type type, TypeVisitor visitor) {
+    TypeWalker.walk(type, TypeVariableMap.EMPTY, visitor);
   }
 
   /**
@@ -347,33 +470,142 @@ public final class TypeResolver {
    *         arguments are declared
    */
   public static Class<?>[] resolveRawArguments(Type genericType, Class<?> subType) {
-    Class<?>[] result = null;
+    Class<?>[] arguments = getRawArguments(genericType, subType).array;
+    return arguments == null ? null : arguments.clone();
+  }
+
+  /**
+   * Returns an unmodifiable list of raw classes representing arguments for the {@code type} using type variable
+   * information from the {@code subType}, as described by {@link #resolveRawArguments(Class, Class)}. While caching is
+   * enabled, the list is computed once per {@code type} and {@code subType} and the same instance is returned to every
+   * caller.
+   *
+   * @param type to resolve arguments for
+   * @param subType to extract type variable information from
+   * @return unmodifiable list of raw classes representing arguments for the {@code type} else {@code null} if no type
+   *         arguments are declared
+   */
+  public static <T, S extends T> List<Class<?>> resolveRawArgumentList(Class<T> type, Class<S> subType) {
+    return resolveRawArgumentList(resolveGenericType(type, subType), subType);
+  }
+
+  /**
+   * Returns an unmodifiable list of raw classes representing arguments for the {@code genericType} using type variable
+   * information from the {@code subType}, as described by {@link #resolveRawArguments(Type, Class)}. While caching is
+   * enabled, the list is computed once per {@code genericType} and {@code subType} and the same instance is returned to
+   * every caller.
+   *
+   * @param genericType to resolve arguments for
+   * @param subType to extract type variable information from
+   * @return unmodifiable list of raw classes representing arguments for the {@code genericType} else {@code null} if no
+   *         type arguments are declared
+   */
+  public static List<Class<?>> resolveRawArgumentList(Type genericType, Class<?> subType) {
+    return getRawArguments(genericType, subType).list;
+  }
+
+  /**
+   * Returns the erased shape of the {@code genericType} after resolving it fully using the type information from the
+   * {@code context}, as a flat pre-order encoding of the raw classes of its nodes and their arities, as described by
+   * {@link TypeShape}. Unlike {@link #resolveRawArguments(Type, Class)}, nested type arguments are resolved as well.
+   * While caching is enabled, the shape is computed once per {@code genericType} and {@code context} and the same
+   * instance is returned to every caller.
+   *
+   * @param genericType to resolve the shape of
+   * @param context the class that serves as starting point to resolve replacements of type variables
+   * @return shape of the resolved {@code genericType} else {@code null} if the {@code genericType} is {@code null}
+   * @throws UnsupportedOperationException if {@code genericType} cannot be reified, as described by
+   *         {@link #reify(Type, Class)}
+   */
+  public static TypeShape resolveTypeShape(Type genericType, Class<?> context) {
+    if (genericType == null)
+      return null;
+    if (!CACHE_ENABLED)
+      return TypeShape.build(genericType, getTypeVariableMap(context, null));
+
+    GenericTypeCache<TypeShape> cachedShapes = SHAPE_CACHE.get(context, SHAPE_LOADER);
+    TypeShape shape = cachedShapes.get(genericType);
+    if (shape == null)
+      shape = cachedShapes.publish(context, genericType,
+          TypeShape.build(genericType, getTypeVariableMap(context, null)));
+
+    return shape;
+  }
+
+  /**
+   * Returns the raw arguments for the {@code genericType}, which are cached per {@code subType} while caching is
+   * enabled.
+   */
+  private static RawArguments getRawArguments(Type genericType, Class<?> subType) {
+    if (genericType == null)
+      return RawArguments.NONE;
+    if (!CACHE_ENABLED)
+      return RawArguments.of(computeRawArguments(genericType, subType));
+
+    GenericTypeCache<RawArguments> cachedArguments = ARGUMENTS_CACHE.get(subType, ARGUMENTS_LOADER);
+    RawArguments arguments = cachedArguments.get(genericType);
+    if (arguments == null)
+      arguments = cachedArguments.publish(subType, genericType,
+          RawArguments.of(computeRawArguments(genericType, subType)));
+
+    return arguments;
+  }
+
+  /**
+   * Resolved raw arguments, which are shared between callers and so must not be modified.
+   */
+  private static final class RawArguments {
+    static final RawArguments NONE = new RawArguments(null);
+
+    final Class<?>[] array;
+    final List<Class<?>> list;
+
+    private RawArguments(Class<?>[] array) {
+      this.array = array;
+      list = array == null ? null : Collections.unmodifiableList(Arrays.<Class<?>>asList(array));
+    }
+
+    static RawArguments of(Class<?>[] array) {
+      return array == null ? NONE : new RawArguments(array);
+    }
+  }
+
+  private static Class<?>[] computeRawArguments(Type genericType, Class<?> subType) {
     Class<?> functionalInterface = null;
 
     // Handle lambdas
-    if (RESOLVES_LAMBDAS && subType.isSynthetic()) {
+    if (subType.isSynthetic() && LambdaIntrospector.get() != null) {
       Class<?> fi = genericType instanceof ParameterizedType
           && ((ParameterizedType) genericType).getRawType() instanceof Class
               ? (Class<?>) ((ParameterizedType) genericType).getRawType()
               : genericType instanceof Class ? (Class<?>) genericType : null;
       if (fi != null && fi.isInterface())
         functionalInterface = fi;
+
+      // The arguments for a functional interface itself are resolved once per lambda class
+      if (functionalInterface != null && genericType == functionalInterface)
+        return getLambdaResolution(subType, functionalInterface).arguments;
     }
 
+    return computeRawArguments(genericType, getTypeVariableMap(subType, functionalInterface));
+  }
+
+  static Class<?>[] computeRawArguments(Type genericType, TypeVariableMap typeVariableMap) {
+    Class<?>[] result = null;
     if (genericType instanceof ParameterizedType) {
       ParameterizedType paramType = (ParameterizedType) genericType;
       Type[] arguments = paramType.getActualTypeArguments();
-      result = new Class[arguments.length];
+      result = new Class<?>[arguments.length];
       for (int i = 0; i < arguments.length; i++)
-        result[i] = resolveRawClass(arguments[i], subType, functionalInterface);
+        result[i] = resolveRawClass(arguments[i], typeVariableMap);
     } else if (genericType instanceof TypeVariable) {
-      result = new Class[1];
-      result[0] = resolveRawClass(genericType, subType, functionalInterface);
+      result = new Class<?>[1];
+      result[0] = resolveRawClass(genericType, typeVariableMap);
     } else if (genericType instanceof Class) {
       TypeVariable<?>[] typeParams = ((Class<?>) genericType).getTypeParameters();
-      result = new Class[typeParams.length];
+      result = new Class<?>[typeParams.length];
       for (int i = 0; i < typeParams.length; i++)
-        result[i] = resolveRawClass(typeParams[i], subType, functionalInterface);
+        result[i] = resolveRawClass(typeParams[i], typeVariableMap);
     }
 
     return result;
@@ -388,6 +620,134 @@ public final class TypeResolver {
    * @return generic {@code type} else {@code null} if it cannot be resolved
    */
   public static Type resolveGenericType(Class<?> type, Type subType) {
+    if (!CACHE_ENABLED || !(subType instanceof Class))
+      return findGenericType(type, subType);
+
+    return SUPERTYPE_CACHE.get((Class<?>) subType, SUPERTYPE_LOADER).declaredTypes.get(type);
+  }
+
+  /**
+   * Returns every generic supertype of the {@code type}, other than {@code Object}, keyed by raw type. The {@code type}
+   * itself is included. Each supertype is parameterized in the context of the {@code type}, with the type variables of
+   * its own supertypes replaced by the arguments they are bound to. Type variables declared by the {@code type}, and any
+   * that are left unbound by raw supertypes, are kept as is, as are wildcards. Supertypes are ordered depth first, with
+   * the interfaces of each type ahead of its superclass, so iterating the map visits them in the same order as
+   * {@link #resolveGenericType(Class, Type)} searches them.
+   *
+   * @param type to index the supertypes of
+   * @return unmodifiable map of raw supertypes to generic supertypes
+   */
+  public static Map<Class<?>, Type> allGenericSupertypes(Class<?> type) {
+    if (!CACHE_ENABLED)
+      return indexGenericSupertypes(type);
+
+    SupertypeIndex index = SUPERTYPE_CACHE.get(type, SUPERTYPE_LOADER);
+    Map<Class<?>, Type> genericTypes = index.genericTypes;
+    // Racing threads build equal maps, so whichever is published last is kept
+    if (genericTypes == null)
+      index.genericTypes = genericTypes = indexGenericSupertypes(type);
+
+    return genericTypes;
+  }
+
+  private static Map<Class<?>, Type> indexGenericSupertypes(Class<?> type) {
+    Map<Class<?>, Type> genericTypes = new LinkedHashMap<Class<?>, Type>();
+    indexSupertypes(type, TypeVariableMap.EMPTY, genericTypes);
+    return Collections.unmodifiableMap(genericTypes);
+  }
+
+  /**
+   * The supertypes of a class keyed by raw type, both as declared and, once requested, as parameterized in the context
+   * of the class.
+   */
+  private static final class SupertypeIndex {
+    final Map<Class<?>, Type> declaredTypes;
+    volatile Map<Class<?>, Type> genericTypes;
+
+    SupertypeIndex(Class<?> type) {
+      declaredTypes = new HashMap<Class<?>, Type>();
+      indexSupertypes(type, null, declaredTypes);
+    }
+  }
+
+  /**
+   * Indexes the {@code type} and its supertypes by raw type, in the same order that {@link #findGenericType(Class, Type)}
+   * searches them so that the first type indexed for each raw type is the one it would find. If {@code bindings} are
+   * given, the type variables in each supertype are substituted with the arguments they are bound to, else supertypes
+   * are indexed as declared.
+   */
+  private static void indexSupertypes(Type type, TypeVariableMap bindings, Map<Class<?>, Type> index) {
+    Class<?> rawType = type instanceof ParameterizedType ? (Class<?>) ((ParameterizedType) type).getRawType()
+        : (Class<?>) type;
+    // A type that was already indexed has had its supertypes indexed too
+    if (index.containsKey(rawType))
+      return;
+
+    TypeVariableMap supertypeBindings = null;
+    if (bindings != null) {
+      type = substitute(type, bindings);
+      supertypeBindings = new TypeVariableMap();
+      if (type instanceof ParameterizedType)
+        bindTypeArgs((ParameterizedType) type, supertypeBindings);
+    }
+
+    index.put(rawType, type);
+    for (Type superInterface : rawType.getGenericInterfaces())
+      if (superInterface != null && !superInterface.equals(Object.class))
+        indexSupertypes(superInterface, supertypeBindings, index);
+
+    Type superClass = rawType.getGenericSuperclass();
+    if (superClass != null && !superClass.equals(Object.class))
+      indexSupertypes(superClass, supertypeBindings, index);
+  }
+
+  /**
+   * Binds the type parameters of the {@code type}'s raw type, and of its owner types, to the {@code type}'s arguments.
+   */
+  private static void bindTypeArgs(ParameterizedType type, TypeVariableMap bindings) {
+    if (type.getOwnerType() instanceof ParameterizedType)
+      bindTypeArgs((ParameterizedType) type.getOwnerType(), bindings);
+
+    TypeVariable<?>[] typeVariables = ((Class<?>) type.getRawType()).getTypeParameters();
+    Type[] typeArguments = type.getActualTypeArguments();
+    for (int i = 0; i < typeVariables.length && i < typeArguments.length; i++)
+      bindings.put(typeVariables[i], typeArguments[i]);
+  }
+
+  /**
+   * Returns the {@code type} with the type variables it references replaced by the types they are bound to in the
+   * {@code bindings}. Wildcards are not substituted.
+   */
+  private static Type substitute(Type type, TypeVariableMap bindings) {
+    if (type instanceof TypeVariable) {
+      Type boundType = bindings.get((TypeVariable<?>) type);
+      return boundType == null ? type : boundType;
+    } else if (type instanceof ParameterizedType) {
+      ParameterizedType parameterizedType = (ParameterizedType) type;
+      Type[] typeArguments = parameterizedType.getActualTypeArguments();
+      ReifiedParameterizedType result = null;
+      for (int i = 0; i < typeArguments.length; i++) {
+        Type typeArgument = substitute(typeArguments[i], bindings);
+        if (result == null && typeArgument != typeArguments[i]) {
+          result = new ReifiedParameterizedType(parameterizedType);
+          for (int j = 0; j < i; j++)
+            result.addReifiedTypeArgument(typeArguments[j]);
+        }
+        if (result != null)
+          result.addReifiedTypeArgument(typeArgument);
+      }
+
+      return result == null ? type : result.freeze();
+    } else if (type instanceof GenericArrayType) {
+      Type componentType = substitute(((GenericArrayType) type).getGenericComponentType(), bindings);
+      if (componentType instanceof Class)
+        return arrayClassOf((Class<?>) componentType);
+    }
+
+    return type;
+  }
+
+  private static Type findGenericType(Class<?> type, Type subType) {
     Class<?> rawType;
     if (subType instanceof ParameterizedType)
       rawType = (Class<?>) ((ParameterizedType) subType).getRawType();
@@ -401,18 +761,171 @@ public final class TypeResolver {
     if (type.isInterface()) {
       for (Type superInterface : rawType.getGenericInterfaces())
         if (superInterface != null && !superInterface.equals(Object.class))
-          if ((result = resolveGenericType(type, superInterface)) != null)
+          if ((result = findGenericType(type, superInterface)) != null)
             return result;
     }
 
     Type superClass = rawType.getGenericSuperclass();
     if (superClass != null && !superClass.equals(Object.class))
-      if ((result = resolveGenericType(type, superClass)) != null)
+      if ((result = findGenericType(type, superClass)) != null)
         return result;
 
     return null;
   }
 
+  /**
+   * Returns a context that resolves types using the type variable information from the {@code type}. The information is
+   * looked up once, when the context is created, so a context can be kept and used to resolve many types against the
+   * same {@code type} without consulting the cache again.
+   *
+   * <p>
+   * Lambda classes are not supported, since their arguments depend on the functional interface they are resolved for.
+   * Use {@link #resolveRawArguments(Class, Class)} for them instead.
+   *
+   * @param type to extract type variable information from
+   * @return context for the {@code type}
+   * @throws IllegalArgumentException if the {@code type} is a lambda class
+   */
+  public static TypeContext context(Class<?> type) {
+    if (type.isSynthetic() && LambdaIntrospector.get() != null)
+      throw new IllegalArgumentException("Cannot create a context for lambda " + type.getName()
+          + ", whose arguments depend on the functional interface they are resolved for");
+
+    return newContext(type);
+  }
+
+  private static TypeContext newContext(Class<?> type) {
+    return new TypeContext(type, getTypeVariableMap(type, null));
+  }
+
+  /**
+   * Returns a context that resolves types using the type arguments of the parameterized {@code type} along with the
+   * type variable information from its raw type, as though resolving against a subclass that extends the {@code type},
+   * such as an anonymous {@code new Foo<String>() {}}, but without defining such a subclass. Parameterized types can be
+   * obtained via reflection or created via {@link #parameterize(Class, Type...)}. The context is built each time this
+   * method is called, so it should be kept and reused.
+   *
+   * @param type to extract type variable information from
+   * @return context for the {@code type}
+   * @throws IllegalArgumentException if the raw type of the {@code type} is not a class
+   */
+  public static TypeContext context(ParameterizedType type) {
+    if (!(type.getRawType() instanceof Class))
+      throw new IllegalArgumentException("Raw type of " + type + " is not a class");
+
+    Class<?> rawType = (Class<?>) type.getRawType();
+    TypeVariableMap map = new TypeVariableMap();
+    populateTypeArgs(type, map, false, false);
+    map = inheritSuperclassArgs(rawType, map, false, CACHE_ENABLED ? null : new HashMap<Class<?>, TypeVariableMap>());
+    populateEnclosingArgs(rawType, map, false);
+    return new TypeContext(type, rawType, map.compact());
+  }
+
+  /**
+   * Returns a parameterized type with the {@code rawType} and {@code typeArguments}, which equals any parameterized type
+   * with the same raw type, owner type and type arguments. The owner type is the class that declares the
+   * {@code rawType}, if any. The result can be used as the context of {@link #context(ParameterizedType)} in place of a
+   * subclass that extends it.
+   *
+   * @param rawType the generic class to parameterize
+   * @param typeArguments the type arguments, one per type parameter of the {@code rawType}
+   * @return parameterized type
+   * @throws IllegalArgumentException if the number of {@code typeArguments} does not match the number of type
+   *         parameters of the {@code rawType}
+   */
+  public static ParameterizedType parameterize(Class<?> rawType, Type... typeArguments) {
+    int typeParameters = rawType.getTypeParameters().length;
+    if (typeParameters != typeArguments.length)
+      throw new IllegalArgumentException(
+          "Expected " + typeParameters + " type arguments for " + rawType.getName() + " but found "
+              + typeArguments.length);
+    for (Type typeArgument : typeArguments)
+      if (typeArgument == null)
+        throw new NullPointerException("typeArguments");
+
+    return new SimpleParameterizedType(rawType, rawType.getDeclaringClass(), typeArguments.clone());
+  }
+
+  /**
+   * Returns a template that reifies the {@code type} against any context class, with the same results as
+   * {@link #reify(Type, Class)}. The {@code type} is traversed once, when the template is created, and the parts of it
+   * that do not refer to type variables are reified up front, so that reifying the template only fills in the parts
+   * that depend on the context. A template can be kept and used to reify the same generic type, such as the type of a
+   * member declared by a common superclass, against many context classes.
+   *
+   * @param type the generic type to reify
+   * @return template that reifies the {@code type}
+   */
+  public static ReificationTemplate reificationTemplate(Type type) {
+    return new ReificationTemplate(type);
+  }
+
+  /**
+   * Returns a model of the generic types of the {@code type}'s fields, method return types and method parameter types,
+   * including those inherited from its supertypes, reified against the {@code type} as described by
+   * {@link ReifiedMembers}. The type variable information of the {@code type} is looked up once for all of its members,
+   * and each distinct generic type is reified once. While caching is enabled, the model is built once per {@code type}
+   * and the same instance is returned to every caller.
+   *
+   * @param type to reify the members of
+   * @return model of the {@code type}'s reified members
+   */
+  public static ReifiedMembers reifyMembers(Class<?> type) {
+    if (!CACHE_ENABLED)
+      return ReifiedMembers.build(type, newContext(type));
+
+    return MEMBERS_CACHE.get(type, MEMBERS_LOADER);
+  }
+
+  /**
+   * Returns models of the reified members of each of the {@code types}, as described by {@link #reifyMembers(Class)},
+   * building them in parallel on the {@code executor}, such as a {@link java.util.concurrent.ForkJoinPool}. The calling
+   * thread builds any models that the {@code executor} has not started yet, so this method does not wait on an
+   * executor that is busy or that is the one it is called from.
+   *
+   * @param types to reify the members of
+   * @param executor to build models on
+   * @return unmodifiable map of the {@code types}, in iteration order, to models of their reified members
+   * @throws java.util.concurrent.RejectedExecutionException if the {@code executor} rejects a model's task
+   * @throws InterruptedException if the calling thread is interrupted while waiting for a model
+   */
+  public static Map<Class<?>, ReifiedMembers> reifyMembers(Collection<? extends Class<?>> types, Executor executor)
+      throws InterruptedException {
+    Map<Class<?>, FutureTask<ReifiedMembers>> tasks = new LinkedHashMap<Class<?>, FutureTask<ReifiedMembers>>();
+    for (final Class<?> type : types) {
+      if (tasks.containsKey(type))
+        continue;
+
+      FutureTask<ReifiedMembers> task = new FutureTask<ReifiedMembers>(new Callable<ReifiedMembers>() {
+        @Override
+        public ReifiedMembers call() {
+          return reifyMembers(type);
+        }
+      });
+      tasks.put(type, task);
+      executor.execute(task);
+    }
+
+    Map<Class<?>, ReifiedMembers> members = new LinkedHashMap<Class<?>, ReifiedMembers>();
+    for (Map.Entry<Class<?>, FutureTask<ReifiedMembers>> entry : tasks.entrySet()) {
+      FutureTask<ReifiedMembers> task = entry.getValue();
+      // Does nothing if the executor has already started the task
+      task.run();
+      try {
+        members.put(entry.getKey(), task.get());
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException)
+          throw (RuntimeException) cause;
+        if (cause instanceof Error)
+          throw (Error) cause;
+        throw new IllegalStateException(cause);
+      }
+    }
+
+    return Collections.unmodifiableMap(members);
+  }
+
   /**
    * Resolves the raw class for the {@code genericType}, using the type variable information from the {@code subType}
    * else {@link Unknown} if the raw class cannot be resolved.
@@ -426,42 +939,50 @@ public final class TypeResolver {
   }
 
   private static Class<?> resolveRawClass(Type genericType, Class<?> subType, Class<?> functionalInterface) {
+    if (genericType instanceof Class)
+      return (Class<?>) genericType;
+    else if (genericType instanceof ParameterizedType)
+      return resolveRawClass(((ParameterizedType) genericType).getRawType(), subType, functionalInterface);
+
+    return resolveRawClass(genericType, getTypeVariableMap(subType, functionalInterface));
+  }
+
+  static Class<?> resolveRawClass(Type genericType, TypeVariableMap typeVariableMap) {
     if (genericType instanceof Class) {
       return (Class<?>) genericType;
     } else if (genericType instanceof ParameterizedType) {
-      return resolveRawClass(((ParameterizedType) genericType).getRawType(), subType, functionalInterface);
+      return resolveRawClass(((ParameterizedType) genericType).getRawType(), typeVariableMap);
     } else if (genericType instanceof GenericArrayType) {
       GenericArrayType arrayType = (GenericArrayType) genericType;
-      Class<?> component = resolveRawClass(arrayType.getGenericComponentType(), subType, functionalInterface);
-      return Array.newInstance(component, 0).getClass();
+      Class<?> component = resolveRawClass(arrayType.getGenericComponentType(), typeVariableMap);
+      return arrayClassOf(component);
     } else if (genericType instanceof TypeVariable) {
       TypeVariable<?> variable = (TypeVariable<?>) genericType;
-      genericType = getTypeVariableMap(subType, functionalInterface).get(variable);
-      genericType = genericType == null ? resolveBound(variable)
-          : resolveRawClass(genericType, subType, functionalInterface);
+      genericType = typeVariableMap.get(variable);
+      genericType = genericType == null ? resolveBound(variable) : resolveRawClass(genericType, typeVariableMap);
     }
 
     return genericType instanceof Class ? (Class<?>) genericType : Unknown.class;
   }
 
-  private static Type reify(final Type genericType, final Map<TypeVariable<?>, Type> typeVariableTypeMap) {
-    // Check for terminal cases to avoid allocating HashMap and trivial call.
+  static Type reify(final Type genericType, final TypeVariableMap typeVariableTypeMap) {
+    // Check for terminal cases to avoid allocating visited types and trivial call.
     if (genericType == null)
       return null;
     else if (genericType instanceof Class<?>)
       return genericType;
     else
-      return reify(genericType, typeVariableTypeMap, new HashMap<ParameterizedType, ReifiedParameterizedType>());
+      return REIFIED_TYPES.intern(reify(genericType, typeVariableTypeMap, new VisitedTypes()));
   }
 
   /**
    * Works like {@link #resolveRawClass(Type, Class, Class)} but does not stop at raw classes. Instead, traverses
    * referenced types.
    *
-   * @param partial contains a mapping of generic types to reified types. A value of {@code null} inside a
-   *        {@link ReifiedParameterizedType} instance means that this type is currently being reified.
+   * @param visited contains the parameterized types visited so far along with their reified counterparts, which are
+   *        still being reified if the type is one of their own arguments.
    */
-  private static Type reify(Type genericType, final Map<TypeVariable<?>, Type> typeVariableMap, Map<ParameterizedType, ReifiedParameterizedType> partial) {
+  static Type reify(Type genericType, final TypeVariableMap typeVariableMap, VisitedTypes visited) {
     // Terminal case.
     if (genericType instanceof Class<?>)
       return genericType;
@@ -470,16 +991,17 @@ public final class TypeResolver {
     if (genericType instanceof ParameterizedType) {
       final ParameterizedType parameterizedType = (ParameterizedType) genericType;
       // Self-referential type needs special attention. Otherwise we might accidentally overflow the stack.
-      if (partial.containsKey(parameterizedType)) {
-        ReifiedParameterizedType res = partial.get(genericType);
+      ReifiedParameterizedType res = visited.get(parameterizedType);
+      if (res != null) {
         res.addReifiedTypeArgument(res);
         return res;
       }
       final Type[] genericTypeArguments =  parameterizedType.getActualTypeArguments();
-      final ReifiedParameterizedType result = new ReifiedParameterizedType(parameterizedType);
-      partial.put(parameterizedType, result);
+      final ReifiedParameterizedType result = new ReifiedParameterizedType(parameterizedType,
+          genericTypeArguments.length);
+      visited.add(result);
       for (Type genericTypeArgument : genericTypeArguments) {
-        Type reified = reify(genericTypeArgument, typeVariableMap, partial);
+        Type reified = reify(genericTypeArgument, typeVariableMap, visited);
         // Self-references are added as soon as they are detected, see above.
         // In this case, skip adding.
         if (reified != result) {
@@ -490,115 +1012,340 @@ public final class TypeResolver {
     } else if (genericType instanceof GenericArrayType) {
       final GenericArrayType genericArrayType = (GenericArrayType) genericType;
       final Type genericComponentType = genericArrayType.getGenericComponentType();
-      final Type reifiedComponentType = reify(genericArrayType.getGenericComponentType(), typeVariableMap, partial);
+      final Type reifiedComponentType = reify(genericArrayType.getGenericComponentType(), typeVariableMap, visited);
 
       if (genericComponentType == reifiedComponentType)
         return genericComponentType;
 
       if (reifiedComponentType instanceof Class<?>)
-        return Array.newInstance((Class<?>) reifiedComponentType, 0).getClass();
+        return arrayClassOf((Class<?>) reifiedComponentType);
 
-      throw new UnsupportedOperationException(
-          "Attempted to reify generic array type, whose generic component type " +
-          "could not be reified to some Class<?>. Handling for this case is not implemented");
+      throw unsupportedGenericArrayType();
     } else if (genericType instanceof TypeVariable<?>) {
       final TypeVariable<?> typeVariable = (TypeVariable<?>) genericType;
       final Type mapping = typeVariableMap.get(typeVariable);
       if (mapping != null)
-        return reify(mapping, typeVariableMap, partial);
+        return reify(mapping, typeVariableMap, visited);
       // NOTE: According to https://docs.oracle.com/javase/tutorial/java/generics/bounded.html
       // if there are multiple upper bounds where one bound is a class, then this must be the
       // leftmost/first bound. Therefore we blindly take this one, hoping it is the most relevant.
       // Hibernate does the same when erasing types, see also
       // https://github.com/hibernate/hibernate-validator/blob/6.0/engine/src/main/java/org/hibernate/validator/internal/util/TypeHelper.java#L181-L186
-      return reify(typeVariable.getBounds()[0], typeVariableMap, partial);
+      return reify(typeVariable.getBounds()[0], typeVariableMap, visited);
     } else if (genericType instanceof WildcardType) {
       final WildcardType wildcardType = (WildcardType) genericType;
       final Type[] upperBounds = wildcardType.getUpperBounds();
       final Type[] lowerBounds = wildcardType.getLowerBounds();
       if (upperBounds.length == 1 && lowerBounds.length == 0)
-        return reify(upperBounds[0], typeVariableMap, partial);
+        return reify(upperBounds[0], typeVariableMap, visited);
 
-      throw new UnsupportedOperationException(
-          "Attempted to reify wildcard type with name '" + wildcardType.getTypeName() +
-          "' which has " + upperBounds.length + " upper bounds and " + lowerBounds.length +
-          " lower bounds. Reification of wildcard types is only supported for" +
-          " the trivial case of exactly 1 upper bound and 0 lower bounds.");
+      throw unsupportedWildcardType(wildcardType);
     }
-    throw new UnsupportedOperationException(
+    throw unsupportedType(genericType);
+  }
+
+  static UnsupportedOperationException unsupportedGenericArrayType() {
+    return new UnsupportedOperationException(
+        "Attempted to reify generic array type, whose generic component type " +
+        "could not be reified to some Class<?>. Handling for this case is not implemented");
+  }
+
+  static UnsupportedOperationException unsupportedWildcardType(WildcardType wildcardType) {
+    return new UnsupportedOperationException(
+        "Attempted to reify wildcard type with name '" + wildcardType.getTypeName() +
+        "' which has " + wildcardType.getUpperBounds().length + " upper bounds and " +
+        wildcardType.getLowerBounds().length + " lower bounds. Reification of wildcard types is only supported for" +
+        " the trivial case of exactly 1 upper bound and 0 lower bounds.");
+  }
+
+  static UnsupportedOperationException unsupportedType(Type genericType) {
+    return new UnsupportedOperationException(
         "Reification of type with name '" + genericType.getTypeName() + "' and " +
         "class name '" + genericType.getClass().getName() + "' is not implemented.");
   }
 
-  private static Map<TypeVariable<?>, Type> getTypeVariableMap(final Class<?> targetType,
+  /**
+   * The parameterized types visited while reifying a type, along with their reified counterparts. Types are looked up
+   * by identity first, since the JDK reuses type instances, such as the bounds of a type variable, and are otherwise
+   * only compared for equality if their raw types match, which avoids hashing nested type arguments.
+   */
+  static final class VisitedTypes {
+    private ReifiedParameterizedType[] types;
+    private int size;
+
+    ReifiedParameterizedType get(ParameterizedType type) {
+      for (int i = 0; i < size; i++)
+        if (types[i].original() == type)
+          return types[i];
+
+      Type rawType = type.getRawType();
+      for (int i = 0; i < size; i++) {
+        ParameterizedType original = types[i].original();
+        if (original.getRawType() == rawType && type.equals(original))
+          return types[i];
+      }
+
+      return null;
+    }
+
+    void add(ReifiedParameterizedType type) {
+      if (types == null)
+        types = new ReifiedParameterizedType[8];
+      else if (size == types.length)
+        types = Arrays.copyOf(types, size * 2);
+      types[size++] = type;
+    }
+  }
+
+  static TypeVariableMap getTypeVariableMap(final Class<?> targetType,
       Class<?> functionalInterface) {
-    Reference<Map<TypeVariable<?>, Type>> ref = TYPE_VARIABLE_CACHE.get(targetType);
-    Map<TypeVariable<?>, Type> map = ref != null ? ref.get() : null;
+    if (functionalInterface != null)
+      return getLambdaResolution(targetType, functionalInterface).typeVariables;
+    if (!CACHE_ENABLED)
+      return buildTypeVariableMap(targetType, null, null);
+
+    return TYPE_VARIABLE_CACHE.get(targetType, TYPE_VARIABLE_LOADER);
+  }
 
-    if (map == null) {
-      map = new HashMap<TypeVariable<?>, Type>();
+  private static LambdaResolution getLambdaResolution(Class<?> lambdaType, Class<?> functionalInterface) {
+    if (!CACHE_ENABLED)
+      return new LambdaResolution(lambdaType, functionalInterface,
+          LambdaIntrospector.get().getMemberRef(lambdaType));
 
-      // Populate lambdas
-      if (functionalInterface != null)
-        populateLambdaArgs(functionalInterface, targetType, map);
+    return LAMBDA_CACHE.get(lambdaType, LAMBDA_LOADER).resolve(lambdaType, functionalInterface);
+  }
 
-      // Populate interfaces
-      populateSuperTypeArgs(targetType.getGenericInterfaces(), map, functionalInterface != null);
+  /**
+   * The member reference that a lambda class delegates to, along with its resolutions against each functional interface
+   * it has been resolved for.
+   */
+  private static final class LambdaInfo {
+    final Member member;
+    final ConcurrentMap<Class<?>, LambdaResolution> resolutions = new ConcurrentHashMap<Class<?>, LambdaResolution>(2);
 
-      // Populate super classes and interfaces
-      Type genericType = targetType.getGenericSuperclass();
-      Class<?> type = targetType.getSuperclass();
-      while (type != null && !Object.class.equals(type)) {
-        if (genericType instanceof ParameterizedType)
-          populateTypeArgs((ParameterizedType) genericType, map, false);
-        populateSuperTypeArgs(type.getGenericInterfaces(), map, false);
+    LambdaInfo(Member member) {
+      this.member = member;
+    }
 
-        genericType = type.getGenericSuperclass();
-        type = type.getSuperclass();
+    LambdaResolution resolve(Class<?> lambdaType, Class<?> functionalInterface) {
+      LambdaResolution resolution = resolutions.get(functionalInterface);
+      if (resolution == null) {
+        synchronized (this) {
+          resolution = resolutions.get(functionalInterface);
+          if (resolution == null) {
+            resolution = new LambdaResolution(lambdaType, functionalInterface, member);
+            resolutions.put(functionalInterface, resolution);
+          }
+        }
       }
 
-      // Populate enclosing classes
-      type = targetType;
-      while (type.isMemberClass()) {
-        genericType = type.getGenericSuperclass();
-        if (genericType instanceof ParameterizedType)
-          populateTypeArgs((ParameterizedType) genericType, map, functionalInterface != null);
+      return resolution;
+    }
+  }
 
-        type = type.getEnclosingClass();
-      }
+  /**
+   * A lambda's type variable map and the resolved arguments for its functional interface.
+   */
+  private static final class LambdaResolution {
+    final TypeVariableMap typeVariables;
+    final Class<?>[] arguments;
+
+    LambdaResolution(Class<?> lambdaType, Class<?> functionalInterface, Member member) {
+      typeVariables = buildTypeVariableMap(lambdaType, functionalInterface, member);
+      TypeVariable<?>[] typeParams = functionalInterface.getTypeParameters();
+      arguments = new Class<?>[typeParams.length];
+      for (int i = 0; i < typeParams.length; i++)
+        arguments[i] = resolveRawClass(typeParams[i], typeVariables);
+    }
+  }
 
-      if (CACHE_ENABLED)
-        TYPE_VARIABLE_CACHE.put(targetType, new WeakReference<Map<TypeVariable<?>, Type>>(map));
+  /**
+   * Builds the type variable map for the {@code targetType}, which is a lambda implementing the
+   * {@code functionalInterface} via the {@code member} if the {@code functionalInterface} is not null. The returned map
+   * is compacted and must not be modified, so that it can be shared between threads once published.
+   */
+  private static TypeVariableMap buildTypeVariableMap(final Class<?> targetType,
+      Class<?> functionalInterface, Member member) {
+    TypeVariableMap map = new TypeVariableMap();
+    Map<Class<?>, TypeVariableMap> inheritedMaps = CACHE_ENABLED ? null : new HashMap<Class<?>, TypeVariableMap>();
+
+    // Populate lambdas
+    if (functionalInterface != null)
+      populateLambdaArgs(functionalInterface, member, map);
+
+    // Populate interfaces
+    populateSuperTypeArgs(targetType.getGenericInterfaces(), map, functionalInterface != null, false, inheritedMaps);
+
+    // Populate super classes and interfaces
+    map = populateSuperclassArgs(targetType, map, false, inheritedMaps);
+
+    // Populate enclosing classes
+    populateEnclosingArgs(targetType, map, functionalInterface != null);
+
+    return map.compact();
+  }
+
+  /**
+   * Populates the {@code map} with the variable/argument pairs of the generic superclasses of the {@code type}, if it
+   * is a member class, and of its enclosing classes.
+   */
+  private static void populateEnclosingArgs(Class<?> type, TypeVariableMap map, boolean depthFirst) {
+    while (type.isMemberClass()) {
+      Type genericType = type.getGenericSuperclass();
+      if (genericType instanceof ParameterizedType)
+        populateTypeArgs((ParameterizedType) genericType, map, depthFirst, false);
+
+      type = type.getEnclosingClass();
+    }
+  }
+
+  /**
+   * Returns the map of type variable/argument pairs that the {@code type} passes on to its subtypes, from the cache
+   * when caching, else from the {@code inheritedMaps} built for the current type variable map.
+   */
+  private static TypeVariableMap getInheritedTypeVariableMap(Class<?> type,
+      Map<Class<?>, TypeVariableMap> inheritedMaps) {
+    if (inheritedMaps == null)
+      return INHERITED_TYPE_VARIABLE_CACHE.get(type, INHERITED_TYPE_VARIABLE_LOADER);
+
+    TypeVariableMap inherited = inheritedMaps.get(type);
+    if (inherited == null) {
+      inherited = buildInheritedTypeVariableMap(type, inheritedMaps);
+      inheritedMaps.put(type, inherited);
+    }
+
+    return inherited;
+  }
+
+  /**
+   * Builds the map of type variable/argument pairs that the {@code type} passes on to its subtypes, deferring the
+   * bounds of unbound type variables. The returned map is compacted and must not be modified.
+   */
+  private static TypeVariableMap buildInheritedTypeVariableMap(Class<?> type,
+      Map<Class<?>, TypeVariableMap> inheritedMaps) {
+    TypeVariableMap map = new TypeVariableMap();
+    populateSuperTypeArgs(type.getGenericInterfaces(), map, false, true, inheritedMaps);
+    return populateSuperclassArgs(type, map, true, inheritedMaps).compact();
+  }
+
+  /**
+   * Populates the {@code map} with the variable/argument pairs of the {@code type}'s superclasses and their interfaces,
+   * returning the populated map, which must not be modified if {@code deferBounds}. When caching, the pairs that the
+   * direct superclass inherits are not found by walking its hierarchy but are copied from its cached inherited map into
+   * a new map, to which the {@code map}'s own pairs are added unless inherited pairs override them.
+   */
+  private static TypeVariableMap populateSuperclassArgs(Class<?> type, TypeVariableMap map, boolean deferBounds,
+      Map<Class<?>, TypeVariableMap> inheritedMaps) {
+    Class<?> superclass = type.getSuperclass();
+    if (superclass == null || Object.class.equals(superclass))
+      return map;
+
+    Type genericSuperclass = type.getGenericSuperclass();
+    if (genericSuperclass instanceof ParameterizedType)
+      populateTypeArgs((ParameterizedType) genericSuperclass, map, false, deferBounds);
+
+    return inheritSuperclassArgs(superclass, map, deferBounds, inheritedMaps);
+  }
+
+  /**
+   * Populates the {@code map}, which holds the variable/argument pairs of a parameterized {@code superclass}, with the
+   * pairs that the {@code superclass} inherits, returning the populated map as described by
+   * {@link #populateSuperclassArgs(Class, TypeVariableMap, boolean, Map)}.
+   */
+  private static TypeVariableMap inheritSuperclassArgs(Class<?> superclass, TypeVariableMap map, boolean deferBounds,
+      Map<Class<?>, TypeVariableMap> inheritedMaps) {
+    if (inheritedMaps != null) {
+      // Without a cache to compose from, walking the superclasses once is cheaper than building their inherited maps
+      populateSuperTypeArgs(superclass.getGenericInterfaces(), map, false, deferBounds, inheritedMaps);
+      return populateSuperclassArgs(superclass, map, deferBounds, inheritedMaps);
     }
 
-    return map;
+    TypeVariableMap inherited = INHERITED_TYPE_VARIABLE_CACHE.get(superclass, INHERITED_TYPE_VARIABLE_LOADER);
+    // A subclass with no pairs of its own that defers bounds inherits the superclass's pairs unchanged
+    if (map.size() == 0 && deferBounds)
+      return inherited;
+
+    TypeVariableMap result = inherited.copy(map.size());
+    for (int i = 0; i < inherited.size(); i++)
+      if (inherited.typeAt(i) instanceof TypeVariable)
+        result.setTypeAt(i, resolveInheritedType(inherited.typeAt(i), map, deferBounds));
+
+    for (int i = 0; i < map.size(); i++)
+      if (inherited.get(map.variableAt(i)) == null)
+        result.add(map.variableAt(i), map.typeAt(i));
+
+    return result;
+  }
+
+  /**
+   * Populates the {@code map} with the variable/argument pairs that the {@code type} passes on to its subtypes, as
+   * though its hierarchy were walked from the {@code map}'s current state. Since those pairs are built once per type,
+   * an interface that is reachable through many paths is only walked once, however many times it is populated.
+   */
+  private static void populateInheritedArgs(Class<?> type, TypeVariableMap map, boolean deferBounds,
+      Map<Class<?>, TypeVariableMap> inheritedMaps) {
+    TypeVariableMap inherited = getInheritedTypeVariableMap(type, inheritedMaps);
+    if (inherited.size() == 0)
+      return;
+
+    // Resolve every pair before populating any, since inherited pairs are resolved against the map's current state
+    Type[] types = new Type[inherited.size()];
+    for (int i = 0; i < types.length; i++)
+      types[i] = resolveInheritedType(inherited.typeAt(i), map, deferBounds);
+    for (int i = 0; i < types.length; i++)
+      map.put(inherited.variableAt(i), types[i]);
   }
 
   /**
-   * Populates the {@code map} with with variable/argument pairs for the given {@code types}.
+   * Returns the inherited {@code type}, which if it is a type variable was left unbound by the type it was inherited
+   * from, resolved against the {@code map}. Type variables that the {@code map} does not bind are resolved to their
+   * bound unless {@code deferBounds}.
    */
-  private static void populateSuperTypeArgs(final Type[] types, final Map<TypeVariable<?>, Type> map,
-      boolean depthFirst) {
+  private static Type resolveInheritedType(Type type, TypeVariableMap map, boolean deferBounds) {
+    if (!(type instanceof TypeVariable))
+      return type;
+
+    TypeVariable<?> variable = (TypeVariable<?>) type;
+    Type boundType = map.get(variable);
+    return boundType != null ? boundType : deferBounds ? variable : resolveBound(variable);
+  }
+
+  /**
+   * Populates the {@code map} with with variable/argument pairs for the given {@code types}. If {@code deferBounds},
+   * arguments that refer to unbound type variables are populated as those type variables rather than their bounds.
+   * Unless {@code depthFirst}, the supertypes of each type are populated from its inherited map.
+   */
+  private static void populateSuperTypeArgs(final Type[] types, final TypeVariableMap map,
+      boolean depthFirst, boolean deferBounds, Map<Class<?>, TypeVariableMap> inheritedMaps) {
     for (Type type : types) {
       if (type instanceof ParameterizedType) {
         ParameterizedType parameterizedType = (ParameterizedType) type;
         if (!depthFirst)
-          populateTypeArgs(parameterizedType, map, depthFirst);
+          populateTypeArgs(parameterizedType, map, depthFirst, deferBounds);
         Type rawType = parameterizedType.getRawType();
         if (rawType instanceof Class)
-          populateSuperTypeArgs(((Class<?>) rawType).getGenericInterfaces(), map, depthFirst);
+          populateSuperTypeArgs((Class<?>) rawType, map, depthFirst, deferBounds, inheritedMaps);
         if (depthFirst)
-          populateTypeArgs(parameterizedType, map, depthFirst);
+          populateTypeArgs(parameterizedType, map, depthFirst, deferBounds);
       } else if (type instanceof Class) {
-        populateSuperTypeArgs(((Class<?>) type).getGenericInterfaces(), map, depthFirst);
+        populateSuperTypeArgs((Class<?>) type, map, depthFirst, deferBounds, inheritedMaps);
       }
     }
   }
 
+  private static void populateSuperTypeArgs(Class<?> type, TypeVariableMap map, boolean depthFirst,
+      boolean deferBounds, Map<Class<?>, TypeVariableMap> inheritedMaps) {
+    if (depthFirst)
+      populateSuperTypeArgs(type.getGenericInterfaces(), map, depthFirst, deferBounds, inheritedMaps);
+    else
+      populateInheritedArgs(type, map, deferBounds, inheritedMaps);
+  }
+
   /**
    * Populates the {@code map} with variable/argument pairs for the given {@code type}.
    */
-  private static void populateTypeArgs(ParameterizedType type, Map<TypeVariable<?>, Type> map, boolean depthFirst) {
+  private static void populateTypeArgs(ParameterizedType type, TypeVariableMap map, boolean depthFirst,
+      boolean deferBounds) {
     if (type.getRawType() instanceof Class) {
       TypeVariable<?>[] typeVariables = ((Class<?>) type.getRawType()).getTypeParameters();
       Type[] typeArguments = type.getActualTypeArguments();
@@ -606,7 +1353,7 @@ public final class TypeResolver {
       if (type.getOwnerType() != null) {
         Type owner = type.getOwnerType();
         if (owner instanceof ParameterizedType)
-          populateTypeArgs((ParameterizedType) owner, map, depthFirst);
+          populateTypeArgs((ParameterizedType) owner, map, depthFirst, deferBounds);
       }
 
       for (int i = 0; i < typeArguments.length; i++) {
@@ -631,7 +1378,7 @@ public final class TypeResolver {
 
           Type resolvedType = map.get(typeVariableArgument);
           if (resolvedType == null)
-            resolvedType = resolveBound(typeVariableArgument);
+            resolvedType = deferBounds ? typeVariableArgument : resolveBound(typeVariableArgument);
           map.put(variable, resolvedType);
         }
       }
@@ -654,62 +1401,59 @@ public final class TypeResolver {
   }
 
   /**
-   * Populates the {@code map} with variable/argument pairs for the {@code functionalInterface}.
+   * Populates the {@code map} with variable/argument pairs for the {@code functionalInterface}, which is implemented by
+   * a lambda that delegates to the {@code member}.
    */
-  private static void populateLambdaArgs(Class<?> functionalInterface, final Class<?> lambdaType,
-      Map<TypeVariable<?>, Type> map) {
-    if (RESOLVES_LAMBDAS) {
-      // Find SAM
-      for (Method m : functionalInterface.getMethods()) {
-        if (!isDefaultMethod(m) && !Modifier.isStatic(m.getModifiers()) && !m.isBridge()) {
-          // Skip methods that override Object.class
-          Method objectMethod = OBJECT_METHODS.get(m.getName());
-          if (objectMethod != null && Arrays.equals(m.getTypeParameters(), objectMethod.getTypeParameters()))
-            continue;
-
-          // Get functional interface's type params
-          Type returnTypeVar = m.getGenericReturnType();
-          Type[] paramTypeVars = m.getGenericParameterTypes();
-
-          Member member = getMemberRef(lambdaType);
-          if (member == null)
-            return;
-
-          // Populate return type argument
-          if (returnTypeVar instanceof TypeVariable) {
-            Class<?> returnType = member instanceof Method ? ((Method) member).getReturnType()
-                : ((Constructor<?>) member).getDeclaringClass();
-            returnType = wrapPrimitives(returnType);
-            if (!returnType.equals(Void.class))
-              map.put((TypeVariable<?>) returnTypeVar, returnType);
-          }
+  private static void populateLambdaArgs(Class<?> functionalInterface, Member member, TypeVariableMap map) {
+    // Find SAM
+    for (Method m : functionalInterface.getMethods()) {
+      if (!isDefaultMethod(m) && !Modifier.isStatic(m.getModifiers()) && !m.isBridge()) {
+        // Skip methods that override Object.class
+        Method objectMethod = LambdaIntrospector.OBJECT_METHODS.get(m.getName());
+        if (objectMethod != null && Arrays.equals(m.getTypeParameters(), objectMethod.getTypeParameters()))
+          continue;
+
+        // Get functional interface's type params
+        Type returnTypeVar = m.getGenericReturnType();
+        Type[] paramTypeVars = m.getGenericParameterTypes();
+
+        if (member == null)
+          return;
 
-          Class<?>[] arguments = member instanceof Method ? ((Method) member).getParameterTypes()
-              : ((Constructor<?>) member).getParameterTypes();
+        // Populate return type argument
+        if (returnTypeVar instanceof TypeVariable) {
+          Class<?> returnType = member instanceof Method ? ((Method) member).getReturnType()
+              : ((Constructor<?>) member).getDeclaringClass();
+          returnType = wrapPrimitives(returnType);
+          if (!returnType.equals(Void.class))
+            map.put((TypeVariable<?>) returnTypeVar, returnType);
+        }
 
-          // Populate object type from arbitrary object method reference
-          int paramOffset = 0;
-          if (paramTypeVars.length > 0 && paramTypeVars[0] instanceof TypeVariable
-              && paramTypeVars.length == arguments.length + 1) {
-            Class<?> instanceType = member.getDeclaringClass();
-            map.put((TypeVariable<?>) paramTypeVars[0], instanceType);
-            paramOffset = 1;
-          }
+        Class<?>[] arguments = member instanceof Method ? ((Method) member).getParameterTypes()
+            : ((Constructor<?>) member).getParameterTypes();
 
-          // Handle additional arguments that are captured from the lambda's enclosing scope
-          int argOffset = 0;
-          if (paramTypeVars.length < arguments.length) {
-            argOffset = arguments.length - paramTypeVars.length;
-          }
+        // Populate object type from arbitrary object method reference
+        int paramOffset = 0;
+        if (paramTypeVars.length > 0 && paramTypeVars[0] instanceof TypeVariable
+            && paramTypeVars.length == arguments.length + 1) {
+          Class<?> instanceType = member.getDeclaringClass();
+          map.put((TypeVariable<?>) paramTypeVars[0], instanceType);
+          paramOffset = 1;
+        }
 
-          // Populate type arguments
-          for (int i = 0; i + argOffset < arguments.length; i++) {
-            if (paramTypeVars[i] instanceof TypeVariable)
-              map.put((TypeVariable<?>) paramTypeVars[i + paramOffset], wrapPrimitives(arguments[i + argOffset]));
-          }
+        // Handle additional arguments that are captured from the lambda's enclosing scope
+        int argOffset = 0;
+        if (paramTypeVars.length < arguments.length) {
+          argOffset = arguments.length - paramTypeVars.length;
+        }
 
-          return;
+        // Populate type arguments
+        for (int i = 0; i + argOffset < arguments.length; i++) {
+          if (paramTypeVars[i] instanceof TypeVariable)
+            map.put((TypeVariable<?>) paramTypeVars[i + paramOffset], wrapPrimitives(arguments[i + argOffset]));
         }
+
+        return;
       }
     }
   }
@@ -718,57 +1462,19 @@ public final class TypeResolver {
     return JAVA_VERSION >= 1.8 && m.isDefault();
   }
 
-  private static Member getMemberRef(Class<?> type) {
-    Object constantPool;
-    try {
-      constantPool = GET_CONSTANT_POOL.invoke(JAVA_LANG_ACCESS, type);
-    } catch (Exception ignore) {
-      return null;
-    }
-
-    Member result = null;
-    for (int i = getConstantPoolSize(constantPool) - 1; i >= 0; i--) {
-      Member member = getConstantPoolMethodAt(constantPool, i);
-      // Skip SerializedLambda constructors and members of the "type" class
-      if (member == null
-          || (member instanceof Constructor
-              && member.getDeclaringClass().getName().equals("java.lang.invoke.SerializedLambda"))
-          || member.getDeclaringClass().isAssignableFrom(type))
-        continue;
-
-      result = member;
-
-      // Return if not valueOf method
-      if (!(member instanceof Method) || !isAutoBoxingMethod((Method) member))
-        break;
-    }
-
-    return result;
-  }
+  /**
+   * Returns the array class for the {@code componentType}, instantiating an array at most once per component type while
+   * caching is enabled.
+   */
+  static Class<?> arrayClassOf(Class<?> componentType) {
+    if (!CACHE_ENABLED)
+      return ARRAY_CLASS_LOADER.load(componentType);
 
-  private static boolean isAutoBoxingMethod(Method method) {
-    Class<?>[] parameters = method.getParameterTypes();
-    return method.getName().equals("valueOf") && parameters.length == 1 && parameters[0].isPrimitive()
-        && wrapPrimitives(parameters[0]).equals(method.getDeclaringClass());
+    return ARRAY_CLASS_CACHE.get(componentType, ARRAY_CLASS_LOADER);
   }
 
-  private static Class<?> wrapPrimitives(Class<?> clazz) {
+  static Class<?> wrapPrimitives(Class<?> clazz) {
     return clazz.isPrimitive() ? PRIMITIVE_WRAPPERS.get(clazz) : clazz;
   }
 
-  private static int getConstantPoolSize(Object constantPool) {
-    try {
-      return (Integer) GET_CONSTANT_POOL_SIZE.invoke(constantPool);
-    } catch (Exception ignore) {
-      return 0;
-    }
-  }
-
-  private static Member getConstantPoolMethodAt(Object constantPool, int i) {
-    try {
-      return (Member) GET_CONSTANT_POOL_METHOD_AT.invoke(constantPool, i);
-    } catch (Exception ignore) {
-      return null;
-    }
-  }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+/**
+ * The erased shape of a fully resolved type, as obtained via {@link TypeResolver#resolveTypeShape(Type, Class)}. The
+ * raw classes of the type's nodes are stored flat, in pre-order, along with the number of type arguments of each node,
+ * so that the shape can be walked with an index. For example, {@code Map<String, List<Long>>} is encoded as the raw
+ * classes {@code [Map, String, List, Long]} with the arities {@code [2, 0, 1, 0]}.
+ *
+ * <p>
+ * Type variables and wildcards are resolved as described by {@link TypeResolver#reify(Type, Class)}. Array types are
+ * encoded as their array class, and a parameterized type that refers back to an enclosing type, such as the bound of
+ * {@code E extends Enum<E>}, is encoded as its raw class without arguments. A shape is immutable and may be shared
+ * between threads.
+ */
+public final class TypeShape {
+  private final Class<?>[] rawClasses;
+  private final int[] arities;
+
+  private TypeShape(Class<?>[] rawClasses, int[] arities) {
+    this.rawClasses = rawClasses;
+    this.arities = arities;
+  }
+
+  /**
+   * Returns the shape of the {@code type}, resolving it using the {@code typeVariableMap}.
+   */
+  static TypeShape build(Type type, TypeVariableMap typeVariableMap) {
+    Builder builder = new Builder();
+    TypeWalker.walk(type, typeVariableMap, builder);
+    return new TypeShape(Arrays.copyOf(builder.rawClasses, builder.size), Arrays.copyOf(builder.arities, builder.size));
+  }
+
+  /**
+   * Returns the number of nodes in the shape.
+   */
+  public int size() {
+    return rawClasses.length;
+  }
+
+  /**
+   * Returns the raw class of the node at the {@code index}.
+   *
+   * @throws ArrayIndexOutOfBoundsException if the {@code index} is not less than {@link #size()}
+   */
+  public Class<?> getRawClass(int index) {
+    return rawClasses[index];
+  }
+
+  /**
+   * Returns the number of type arguments of the node at the {@code index}, which immediately follow it.
+   *
+   * @throws ArrayIndexOutOfBoundsException if the {@code index} is not less than {@link #size()}
+   */
+  public int getArity(int index) {
+    return arities[index];
+  }
+
+  /**
+   * Returns the index of the node that follows the node at the {@code index} and all of its type arguments, which is
+   * {@link #size()} for the last node.
+   *
+   * @throws ArrayIndexOutOfBoundsException if the {@code index} is not less than {@link #size()}
+   */
+  public int skip(int index) {
+    for (int remaining = 1; remaining > 0; remaining--)
+      remaining += arities[index++];
+    return index;
+  }
+
+  /**
+   * Returns a copy of the raw classes of the shape's nodes, in pre-order.
+   */
+  public Class<?>[] getRawClasses() {
+    return rawClasses.clone();
+  }
+
+  /**
+   * Returns a copy of the arities of the shape's nodes, in pre-order.
+   */
+  public int[] getArities() {
+    return arities.clone();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof TypeShape))
+      return false;
+    TypeShape other = (TypeShape) obj;
+    return Arrays.equals(rawClasses, other.rawClasses) && Arrays.equals(arities, other.arities);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(rawClasses) + Arrays.hashCode(arities);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    if (rawClasses.length > 0)
+      append(sb, 0);
+    return sb.toString();
+  }
+
+  private int append(StringBuilder sb, int index) {
+    Class<?> rawClass = rawClasses[index];
+    int dimensions = 0;
+    for (; rawClass.isArray(); dimensions++)
+      rawClass = rawClass.getComponentType();
+    sb.append(rawClass.getName());
+    for (int i = 0; i < dimensions; i++)
+      sb.append("[]");
+    int arity = arities[index++];
+    if (arity > 0) {
+      sb.append('<');
+      for (int i = 0; i < arity; i++) {
+        if (i > 0)
+          sb.append(", ");
+        index = append(sb, index);
+      }
+      sb.append('>');
+    }
+
+    return index;
+  }
+
+  /**
+   * Records visited nodes in pre-order, counting the arguments of each enclosing parameterized type as they are
+   * visited.
+   */
+  private static final class Builder implements TypeVisitor {
+    Class<?>[] rawClasses = new Class<?>[8];
+    int[] arities = new int[8];
+    int size;
+    /** Indexes of the enclosing parameterized types */
+    private int[] enclosing = new int[4];
+    private int depth;
+
+    @Override
+    public void visitClass(Class<?> type) {
+      add(type);
+    }
+
+    @Override
+    public void visitArray(Class<?> type) {
+      add(type);
+    }
+
+    @Override
+    public boolean visitParameterizedType(Class<?> rawType, ParameterizedType type) {
+      int index = add(rawType);
+      if (depth == enclosing.length)
+        enclosing = Arrays.copyOf(enclosing, depth * 2);
+      enclosing[depth++] = index;
+      return true;
+    }
+
+    @Override
+    public void endParameterizedType(Class<?> rawType, ParameterizedType type) {
+      depth--;
+    }
+
+    @Override
+    public void visitCycle(Class<?> rawType, ParameterizedType type) {
+      add(rawType);
+    }
+
+    private int add(Class<?> rawClass) {
+      if (depth > 0)
+        arities[enclosing[depth - 1]]++;
+      if (size == rawClasses.length) {
+        rawClasses = Arrays.copyOf(rawClasses, size * 2);
+        arities = Arrays.copyOf(arities, size * 2);
+      }
+      rawClasses[size] = rawClass;
+      return size++;
+    }
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.Arrays;
+
+/**
+ * A compact map of type variables to the types they resolve to, held in two flat arrays rather than in per entry hash
+ * nodes.
+ *
+ * <p>
+ * Lookups in small maps scan the keys, comparing by identity first. The same type variable is usually represented by
+ * the same instance, since type variables of a class are created once per class. Where it is not, such as for type
+ * variables of copied {@code Method} objects, keys are compared by generic declaration and name, which together
+ * identify a type parameter. Declarations that are classes are compared by identity. Maps with more than
+ * {@value #INDEX_THRESHOLD} entries, such as those of deep hierarchies, also keep an open addressing index of their
+ * entries, hashed by declaration and name, so that building and looking up such maps does not scan every entry.
+ *
+ * <p>
+ * Maps are populated while being built and are treated as immutable once {@link #compact() compacted} and published.
+ * The shared {@link #EMPTY} map cannot be modified.
+ */
+final class TypeVariableMap {
+  static final TypeVariableMap EMPTY = new TypeVariableMap(0, true);
+  static final int INDEX_THRESHOLD = 8;
+
+  private final boolean immutable;
+  private TypeVariable<?>[] variables;
+  private Type[] types;
+  private int size;
+  /**
+   * Positions of the entries plus one, hashed by declaration and name, else {@code null} while the map has no more than
+   * {@link #INDEX_THRESHOLD} entries
+   */
+  private int[] index;
+
+  TypeVariableMap() {
+    this(8, false);
+  }
+
+  private TypeVariableMap(int capacity, boolean immutable) {
+    this.immutable = immutable;
+    variables = new TypeVariable<?>[capacity];
+    types = new Type[capacity];
+  }
+
+  /**
+   * Returns the type the {@code variable} resolves to, else {@code null}.
+   */
+  Type get(TypeVariable<?> variable) {
+    int index = indexOf(variable);
+    return index == -1 ? null : types[index];
+  }
+
+  void put(TypeVariable<?> variable, Type type) {
+    int index = indexOf(variable);
+    if (index == -1)
+      add(variable, type);
+    else
+      types[index] = type;
+  }
+
+  /**
+   * Adds an entry for a {@code variable} that is known not to be in this map, without looking it up.
+   */
+  void add(TypeVariable<?> variable, Type type) {
+    checkMutable();
+    if (size == variables.length) {
+      int capacity = Math.max(4, size * 2);
+      variables = Arrays.copyOf(variables, capacity);
+      types = Arrays.copyOf(types, capacity);
+    }
+
+    variables[size] = variable;
+    types[size++] = type;
+    if (index != null)
+      index(size - 1);
+    else if (size > INDEX_THRESHOLD)
+      reindex();
+  }
+
+  /**
+   * Returns a copy of this map with room for {@code additionalCapacity} more entries.
+   */
+  TypeVariableMap copy(int additionalCapacity) {
+    TypeVariableMap copy = new TypeVariableMap(0, false);
+    copy.variables = Arrays.copyOf(variables, size + additionalCapacity);
+    copy.types = Arrays.copyOf(types, size + additionalCapacity);
+    copy.size = size;
+    if (index != null)
+      copy.index = index.clone();
+    return copy;
+  }
+
+  int size() {
+    return size;
+  }
+
+  TypeVariable<?> variableAt(int index) {
+    return variables[index];
+  }
+
+  Type typeAt(int index) {
+    return types[index];
+  }
+
+  void setTypeAt(int index, Type type) {
+    checkMutable();
+    types[index] = type;
+  }
+
+  /**
+   * Trims the arrays to the number of entries and returns this map, which should not be modified afterwards.
+   */
+  TypeVariableMap compact() {
+    if (size == 0)
+      return EMPTY;
+    if (size < variables.length) {
+      variables = Arrays.copyOf(variables, size);
+      types = Arrays.copyOf(types, size);
+    }
+
+    return this;
+  }
+
+  private void checkMutable() {
+    if (immutable)
+      throw new UnsupportedOperationException("Type variable map is immutable");
+  }
+
+  private int indexOf(TypeVariable<?> variable) {
+    if (index != null)
+      return indexedIndexOf(variable);
+
+    for (int i = 0; i < size; i++)
+      if (variables[i] == variable)
+        return i;
+
+    GenericDeclaration declaration = null;
+    String name = variable.getName();
+    for (int i = 0; i < size; i++) {
+      TypeVariable<?> candidate = variables[i];
+      if (candidate.getName().equals(name)) {
+        if (declaration == null)
+          declaration = variable.getGenericDeclaration();
+        if (sameDeclaration(declaration, candidate.getGenericDeclaration()))
+          return i;
+      }
+    }
+
+    return -1;
+  }
+
+  private int indexedIndexOf(TypeVariable<?> variable) {
+    GenericDeclaration declaration = variable.getGenericDeclaration();
+    String name = variable.getName();
+    int mask = index.length - 1;
+    for (int slot = hash(declaration, name) & mask;; slot = (slot + 1) & mask) {
+      int position = index[slot] - 1;
+      if (position == -1)
+        return -1;
+      TypeVariable<?> candidate = variables[position];
+      if (candidate == variable
+          || (candidate.getName().equals(name) && sameDeclaration(declaration, candidate.getGenericDeclaration())))
+        return position;
+    }
+  }
+
+  /** Rebuilds the index with room for twice the entries, keeping it at most half full. */
+  private void reindex() {
+    int capacity = Integer.highestOneBit(size * 4 - 1);
+    index = new int[capacity];
+    for (int i = 0; i < size; i++)
+      index(i);
+  }
+
+  private void index(int position) {
+    if (size * 2 > index.length) {
+      reindex();
+      return;
+    }
+
+    TypeVariable<?> variable = variables[position];
+    int mask = index.length - 1;
+    int slot = hash(variable.getGenericDeclaration(), variable.getName()) & mask;
+    while (index[slot] != 0)
+      slot = (slot + 1) & mask;
+    index[slot] = position + 1;
+  }
+
+  /**
+   * Hashes a type parameter consistently with {@link #sameDeclaration(GenericDeclaration, GenericDeclaration)}.
+   */
+  private static int hash(GenericDeclaration declaration, String name) {
+    int h = 31 * (declaration instanceof Class ? System.identityHashCode(declaration) : declaration.hashCode())
+        + name.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static boolean sameDeclaration(GenericDeclaration declaration, GenericDeclaration candidate) {
+    return candidate == declaration || (!(declaration instanceof Class) && declaration.equals(candidate));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder().append('{');
+    for (int i = 0; i < size; i++)
+      sb.append(i == 0 ? "" : ", ").append(variables[i]).append('=').append(types[i]);
+    return sb.append('}').toString();
+  }
+}
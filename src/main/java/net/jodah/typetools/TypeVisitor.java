@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Receives the nodes of a type as it is resolved, via {@link TypeResolver#visit(Type, Class, TypeVisitor)}. Nodes are
+ * visited depth first, in the same order and with the same resolution of type variables and wildcards as
+ * {@link TypeResolver#reify(Type, Class)}, but without creating the reified types themselves.
+ */
+public interface TypeVisitor {
+  /**
+   * Visits a class that is not an array class.
+   *
+   * @param type the class
+   */
+  void visitClass(Class<?> type);
+
+  /**
+   * Visits an array class, which is either declared as such or resolved from a generic array type.
+   *
+   * @param type the array class
+   */
+  void visitArray(Class<?> type);
+
+  /**
+   * Visits a parameterized type before its type arguments. Each argument is then visited in turn, unless this method
+   * returns {@code false}, after which {@link #endParameterizedType(Class, ParameterizedType)} is called.
+   *
+   * @param rawType the raw class of the parameterized type
+   * @param type the parameterized type, whose type arguments are not resolved
+   * @return whether the type arguments should be visited
+   */
+  boolean visitParameterizedType(Class<?> rawType, ParameterizedType type);
+
+  /**
+   * Ends the visit of a parameterized type, after its type arguments.
+   *
+   * @param rawType the raw class of the parameterized type
+   * @param type the parameterized type, whose type arguments are not resolved
+   */
+  void endParameterizedType(Class<?> rawType, ParameterizedType type);
+
+  /**
+   * Visits a parameterized type that refers back to an enclosing parameterized type that is still being visited, such
+   * as the bound of {@code E extends Enum<E>}, and which is therefore not visited again.
+   *
+   * @param rawType the raw class of the parameterized type
+   * @param type the parameterized type, whose type arguments are not resolved
+   */
+  void visitCycle(Class<?> rawType, ParameterizedType type);
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.jodah.typetools;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+
+/**
+ * Walks a type for a {@link TypeVisitor}, resolving type variables and wildcards as {@link TypeResolver#reify(Type,
+ * Class)} does.
+ *
+ * <p>
+ * Cycles are detected against the enclosing parameterized types that are still being walked, looking them up as
+ * reification does. Reification also reuses a reified type for a parameterized type that it has completed before, so
+ * a subtree that occurs more than once, such as both arguments of {@code Map<E, E>}, is reified once and shared,
+ * whereas it is walked once for each occurrence here. Either way, each occurrence describes the same resolved type.
+ */
+final class TypeWalker {
+  private TypeWalker() {
+  }
+
+  static void walk(Type type, TypeVariableMap typeVariableMap, TypeVisitor visitor) {
+    if (type != null)
+      walk(type, typeVariableMap, visitor, null, 0);
+  }
+
+  /**
+   * Walks the {@code type} below the first {@code depth} of the {@code enclosing} parameterized types. The enclosing
+   * types are only allocated once a parameterized type is walked into, and are shared by the whole walk.
+   *
+   * @return the enclosing types, which are grown as needed
+   */
+  private static ParameterizedType[] walk(Type type, TypeVariableMap typeVariableMap, TypeVisitor visitor,
+      ParameterizedType[] enclosing, int depth) {
+    if (type instanceof Class) {
+      Class<?> clazz = (Class<?>) type;
+      if (clazz.isArray())
+        visitor.visitArray(clazz);
+      else
+        visitor.visitClass(clazz);
+    } else if (type instanceof ParameterizedType) {
+      ParameterizedType parameterizedType = (ParameterizedType) type;
+      Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+      if (contains(enclosing, depth, parameterizedType)) {
+        visitor.visitCycle(rawType, parameterizedType);
+      } else {
+        if (visitor.visitParameterizedType(rawType, parameterizedType)) {
+          if (enclosing == null)
+            enclosing = new ParameterizedType[8];
+          else if (depth == enclosing.length)
+            enclosing = Arrays.copyOf(enclosing, depth * 2);
+          enclosing[depth] = parameterizedType;
+          for (Type argument : argumentsOf(parameterizedType))
+            enclosing = walk(argument, typeVariableMap, visitor, enclosing, depth + 1);
+        }
+        visitor.endParameterizedType(rawType, parameterizedType);
+      }
+    } else if (type instanceof GenericArrayType) {
+      Class<?> componentType = resolveClass(((GenericArrayType) type).getGenericComponentType(), typeVariableMap);
+      if (componentType == null)
+        throw TypeResolver.unsupportedGenericArrayType();
+      visitor.visitArray(TypeResolver.arrayClassOf(componentType));
+    } else if (type instanceof TypeVariable) {
+      TypeVariable<?> typeVariable = (TypeVariable<?>) type;
+      Type mapping = typeVariableMap.get(typeVariable);
+      enclosing = walk(mapping != null ? mapping : typeVariable.getBounds()[0], typeVariableMap, visitor, enclosing,
+          depth);
+    } else if (type instanceof WildcardType) {
+      enclosing = walk(upperBound((WildcardType) type), typeVariableMap, visitor, enclosing, depth);
+    } else {
+      throw TypeResolver.unsupportedType(type);
+    }
+
+    return enclosing;
+  }
+
+  /**
+   * Returns whether the {@code type} is among the first {@code depth} of the {@code enclosing} types, looking them up
+   * as reification does.
+   */
+  private static boolean contains(ParameterizedType[] enclosing, int depth, ParameterizedType type) {
+    for (int i = 0; i < depth; i++)
+      if (enclosing[i] == type)
+        return true;
+
+    Type rawType = type.getRawType();
+    for (int i = 0; i < depth; i++)
+      if (enclosing[i].getRawType() == rawType && type.equals(enclosing[i]))
+        return true;
+
+    return false;
+  }
+
+  /**
+   * Returns the type arguments of the {@code type}, without copying them if the {@code type} is already reified. The
+   * JDK's parameterized types only hand out copies of their arguments.
+   */
+  private static Type[] argumentsOf(ParameterizedType type) {
+    return type instanceof ReifiedParameterizedType ? ((ReifiedParameterizedType) type).reifiedTypeArguments()
+        : type.getActualTypeArguments();
+  }
+
+  /**
+   * Returns the class that the {@code type} is reified to, else {@code null} if it is reified to a parameterized type.
+   */
+  private static Class<?> resolveClass(Type type, TypeVariableMap typeVariableMap) {
+    if (type instanceof Class)
+      return (Class<?>) type;
+    if (type instanceof ParameterizedType)
+      return null;
+    if (type instanceof GenericArrayType) {
+      Class<?> componentType = resolveClass(((GenericArrayType) type).getGenericComponentType(), typeVariableMap);
+      if (componentType == null)
+        throw TypeResolver.unsupportedGenericArrayType();
+      return TypeResolver.arrayClassOf(componentType);
+    }
+    if (type instanceof TypeVariable) {
+      TypeVariable<?> typeVariable = (TypeVariable<?>) type;
+      Type mapping = typeVariableMap.get(typeVariable);
+      return resolveClass(mapping != null ? mapping : typeVariable.getBounds()[0], typeVariableMap);
+    }
+    if (type instanceof WildcardType)
+      return resolveClass(upperBound((WildcardType) type), typeVariableMap);
+
+    throw TypeResolver.unsupportedType(type);
+  }
+
+  private static Type upperBound(WildcardType type) {
+    Type[] upperBounds = type.getUpperBounds();
+    if (upperBounds.length == 1 && type.getLowerBounds().length == 0)
+      return upperBounds[0];
+
+    throw TypeResolver.unsupportedWildcardType(type);
+  }
+}
@@ -0,0 +1,49 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.lang.reflect.Member;
+import java.util.function.Function;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the agent backend against a stand-in for the agent's registry, since the agent itself is only installed by the
+ * agent module's integration tests.
+ */
+@Test
+public class AgentIntrospectorTest {
+  /** Records a single lambda class, as the agent's registry would. */
+  public static class Registry {
+    static volatile Class<?> recorded;
+    static volatile Member member;
+
+    public static Member memberOf(Class<?> lambdaClass) {
+      if (lambdaClass == IllegalStateException.class)
+        throw new IllegalStateException();
+      return lambdaClass == recorded ? member : null;
+    }
+  }
+
+  public void shouldLookUpRecordedMembers() throws Exception {
+    Function<String, Integer> fn = Integer::parseInt;
+    Registry.recorded = fn.getClass();
+    Registry.member = Integer.class.getMethod("parseInt", String.class);
+
+    AgentIntrospector introspector = AgentIntrospector.bind(Registry.class);
+    assertEquals(introspector.getMemberRef(fn.getClass()), Registry.member);
+    assertEquals(introspector.name(), AgentIntrospector.NAME);
+  }
+
+  public void shouldLeaveUnrecordedClassesToOtherBackends() throws Exception {
+    AgentIntrospector introspector = AgentIntrospector.bind(Registry.class);
+    assertNull(introspector.getMemberRef(String.class));
+    assertNull(introspector.getMemberRef(IllegalStateException.class));
+  }
+
+  @Test(expectedExceptions = ClassNotFoundException.class)
+  public void shouldNotProbeWithoutAgent() throws Exception {
+    AgentIntrospector.probe();
+  }
+}
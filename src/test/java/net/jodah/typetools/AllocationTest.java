@@ -0,0 +1,128 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.testng.SkipException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Asserts that resolutions against a warm cache do not allocate.
+ */
+@Test
+public class AllocationTest {
+  private static final int ITERATIONS = 100000;
+
+  interface Handler<T> {
+  }
+
+  static class StringHandler implements Handler<String> {
+  }
+
+  static class ArrayHandler<E> implements Handler<E[]> {
+  }
+
+  static class ListArrayHandler extends ArrayHandler<List<String>> {
+  }
+
+  private com.sun.management.ThreadMXBean threadMXBean;
+
+  @BeforeMethod
+  protected void setUp() {
+    if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+      throw new SkipException("Allocated bytes are not measurable on this JVM");
+    threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    if (!threadMXBean.isThreadAllocatedMemorySupported() || !threadMXBean.isThreadAllocatedMemoryEnabled())
+      throw new SkipException("Allocated bytes are not measurable on this JVM");
+    TypeResolver.enableCache();
+  }
+
+  public void shouldResolveRawArgumentWithoutAllocating() {
+    Type genericType = StringHandler.class.getGenericInterfaces()[0];
+    assertEquals(TypeResolver.resolveRawArgument(genericType, StringHandler.class), String.class);
+    assertEquals(allocatedBytes(genericType, StringHandler.class), 0);
+  }
+
+  public void shouldResolveRawArgumentForClassWithoutAllocating() {
+    assertEquals(TypeResolver.resolveRawArgument(Handler.class, StringHandler.class), String.class);
+    assertEquals(allocatedBytes(new Runnable() {
+      @Override
+      public void run() {
+        TypeResolver.resolveRawArgument(Handler.class, StringHandler.class);
+      }
+    }), 0);
+  }
+
+  public void shouldResolveRawGenericArrayArgumentWithoutAllocating() {
+    Type genericType = ArrayHandler.class.getGenericInterfaces()[0];
+    assertEquals(TypeResolver.resolveRawArgument(genericType, ListArrayHandler.class), List[].class);
+    assertEquals(allocatedBytes(genericType, ListArrayHandler.class), 0);
+  }
+
+  public void shouldVisitResolvedTypeVariableWithoutAllocating() {
+    final Type genericType = Handler.class.getTypeParameters()[0];
+    final TypeVisitor visitor = new TypeVisitor() {
+      @Override
+      public void visitClass(Class<?> type) {
+      }
+
+      @Override
+      public void visitArray(Class<?> type) {
+      }
+
+      @Override
+      public boolean visitParameterizedType(Class<?> rawType, ParameterizedType type) {
+        return true;
+      }
+
+      @Override
+      public void endParameterizedType(Class<?> rawType, ParameterizedType type) {
+      }
+
+      @Override
+      public void visitCycle(Class<?> rawType, ParameterizedType type) {
+      }
+    };
+
+    assertEquals(allocatedBytes(new Runnable() {
+      @Override
+      public void run() {
+        TypeResolver.visit(genericType, StringHandler.class, visitor);
+      }
+    }), 0);
+  }
+
+  private long allocatedBytes(final Type genericType, final Class<?> subType) {
+    return allocatedBytes(new Runnable() {
+      @Override
+      public void run() {
+        TypeResolver.resolveRawArgument(genericType, subType);
+      }
+    });
+  }
+
+  /**
+   * Returns the fewest bytes allocated by any of several rounds of running the {@code resolution} repeatedly, which
+   * discounts one-off allocations by the JVM itself, such as when compiling the loop.
+   */
+  private long allocatedBytes(Runnable resolution) {
+    long threadId = Thread.currentThread().getId();
+    long fewest = Long.MAX_VALUE;
+    for (int round = 0; round < 5; round++) {
+      // Deduct whatever reading the counter allocates
+      long start = threadMXBean.getThreadAllocatedBytes(threadId);
+      long overhead = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+      start = threadMXBean.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < ITERATIONS; i++)
+        resolution.run();
+      fewest = Math.min(fewest, threadMXBean.getThreadAllocatedBytes(threadId) - start - overhead);
+    }
+
+    return fewest;
+  }
+}
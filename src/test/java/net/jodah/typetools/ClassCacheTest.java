@@ -0,0 +1,318 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import net.jodah.typetools.TypeResolver.CacheRetention;
+
+@Test
+public class ClassCacheTest {
+  static class Cached {
+  }
+
+  static class StringList extends ArrayList<String> {
+  }
+
+  static class SelfList extends ArrayList<SelfList> {
+  }
+
+  /**
+   * Defines its own copies of a nested class and the class that declares it, so that the copies can be collected once
+   * the loader is unreachable.
+   */
+  static class IsolatingClassLoader extends ClassLoader {
+    private final ClassLoader source;
+    private final List<String> isolatedNames = new ArrayList<String>();
+
+    /** Creates a loader that is a child of the {@code isolated} class's loader. */
+    IsolatingClassLoader(Class<?> isolated) {
+      this(isolated, isolated.getClassLoader());
+    }
+
+    IsolatingClassLoader(Class<?> isolated, ClassLoader parent) {
+      super(parent);
+      source = isolated.getClassLoader();
+      isolatedNames.add(isolated.getName());
+      isolatedNames.add(isolated.getDeclaringClass().getName());
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!isolatedNames.contains(name))
+        return super.loadClass(name, resolve);
+
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> loaded = findLoadedClass(name);
+        if (loaded != null)
+          return loaded;
+
+        try {
+          InputStream in = source.getResourceAsStream(name.replace('.', '/') + ".class");
+          try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) != -1;)
+              out.write(buffer, 0, read);
+            byte[] bytes = out.toByteArray();
+            return defineClass(name, bytes, 0, bytes.length);
+          } finally {
+            in.close();
+          }
+        } catch (Exception e) {
+          throw new ClassNotFoundException(name, e);
+        }
+      }
+    }
+  }
+
+  private static final ClassCache.Loader<Object> LOADER = new ClassCache.Loader<Object>() {
+    @Override
+    public Object load(Class<?> type) {
+      return new Object();
+    }
+  };
+
+  public void shouldRetainValueAcrossGcWhileClassIsReachable() throws Exception {
+    ClassCache<Object> cache = ClassCache.create();
+    cache.configure(CacheRetention.CLASS, ClassCache.UNBOUNDED);
+    int identity = System.identityHashCode(cache.get(Cached.class, LOADER));
+
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    Object value = cache.get(Cached.class);
+    assertNotNull(value);
+    assertEquals(System.identityHashCode(value), identity);
+  }
+
+  public void shouldEvictOldestValuesWhenBounded() {
+    ClassCache<Object> cache = ClassCache.create();
+    cache.configure(CacheRetention.CLASS, 2);
+
+    Object first = cache.get(String.class, LOADER);
+    cache.get(Integer.class, LOADER);
+    assertSame(cache.get(String.class), first);
+
+    cache.get(Long.class, LOADER);
+    assertNull(cache.get(String.class));
+    assertNotNull(cache.get(Integer.class));
+    assertNotNull(cache.get(Long.class));
+  }
+
+  public void shouldCountReloadedValueOnceWhenBounded() throws Exception {
+    ClassCache<Object> cache = ClassCache.create();
+    cache.configure(CacheRetention.WEAK, 2);
+
+    cache.get(String.class, LOADER);
+    for (int i = 0; i < 20 && cache.get(String.class) != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(cache.get(String.class));
+
+    Object reloaded = cache.get(String.class, LOADER);
+    Object second = cache.get(Integer.class, LOADER);
+    assertSame(cache.get(String.class), reloaded);
+    assertSame(cache.get(Integer.class), second);
+
+    Object third = cache.get(Long.class, LOADER);
+    assertNull(cache.get(String.class));
+    assertSame(cache.get(Integer.class), second);
+    assertSame(cache.get(Long.class), third);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectNonPositiveMaximumSize() {
+    TypeResolver.enableCache(CacheRetention.SOFT, 0);
+  }
+
+  public void shouldComputeOnceForConcurrentMisses() throws Exception {
+    final ClassCache<Object> cache = ClassCache.create();
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+    final ClassCache.Loader<Object> loader = new ClassCache.Loader<Object>() {
+      @Override
+      public Object load(Class<?> type) {
+        loads.incrementAndGet();
+        try {
+          Thread.sleep(50);
+        } catch (InterruptedException ignore) {
+        }
+        return new Object();
+      }
+    };
+
+    int threads = 16;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Object>> futures = new ArrayList<Future<Object>>();
+      for (int i = 0; i < threads; i++)
+        futures.add(executor.submit(new Callable<Object>() {
+          @Override
+          public Object call() throws Exception {
+            start.await();
+            return cache.get(String.class, loader);
+          }
+        }));
+
+      start.countDown();
+      Object first = futures.get(0).get();
+      for (Future<Object> future : futures)
+        assertSame(future.get(), first);
+      assertEquals(loads.get(), 1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  public void shouldReadJdkClassEntriesWhileMapIsLocked() throws Exception {
+    final ClassCache.WeakClassMap<Object> map = new ClassCache.WeakClassMap<Object>();
+    final ClassCache.Entry<Object> entry = map.entry(String.class);
+    final CountDownLatch locked = new CountDownLatch(1);
+    final CountDownLatch read = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      executor.submit(new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          synchronized (map) {
+            locked.countDown();
+            return read.await(5, TimeUnit.SECONDS);
+          }
+        }
+      });
+      locked.await();
+
+      Future<ClassCache.Entry<Object>> future = executor.submit(new Callable<ClassCache.Entry<Object>>() {
+        @Override
+        public ClassCache.Entry<Object> call() {
+          return map.entry(String.class);
+        }
+      });
+      assertSame(future.get(1, TimeUnit.SECONDS), entry);
+    } finally {
+      read.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  public void shouldKeepEntriesWhenWeakClassMapGrows() {
+    ClassCache.WeakClassMap<Object> map = new ClassCache.WeakClassMap<Object>();
+    Class<?>[] types = { String.class, Integer.class, Long.class, Short.class, Byte.class, Double.class, Float.class,
+        Character.class, Boolean.class, Void.class, Object.class, Number.class, List.class, ArrayList.class, Map.class,
+        HashMap.class, Set.class, HashSet.class, Thread.class, Runnable.class, Callable.class, Class.class };
+    List<ClassCache.Entry<Object>> entries = new ArrayList<ClassCache.Entry<Object>>();
+    for (Class<?> type : types)
+      entries.add(map.entry(type));
+
+    for (int i = 0; i < types.length; i++)
+      assertSame(map.entry(types[i]), entries.get(i));
+  }
+
+  public void shouldClear() {
+    ClassCache<Object> cache = ClassCache.create();
+    Object value = cache.get(String.class, LOADER);
+
+    assertSame(cache.get(String.class), value);
+    cache.clear();
+    assertNull(cache.get(String.class));
+  }
+
+  public void shouldReleaseClassResolvedThroughTypeResolverWithWeakRetention() throws Exception {
+    TypeResolver.enableCache(CacheRetention.WEAK);
+    try {
+      WeakReference<Class<?>> ref = resolveInIsolatedLoader();
+
+      for (int i = 0; i < 20 && ref.get() != null; i++) {
+        System.gc();
+        Thread.sleep(10);
+      }
+
+      assertNull(ref.get());
+    } finally {
+      TypeResolver.enableCache(CacheRetention.CLASS);
+    }
+  }
+
+  public void shouldReleaseSelfReferentialClassFromSiblingLoaderWithClassRetention() throws Exception {
+    TypeResolver.enableCache(CacheRetention.CLASS);
+    WeakReference<Class<?>> ref = resolveInSiblingLoader();
+
+    for (int i = 0; i < 20 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertNull(ref.get());
+  }
+
+  private static WeakReference<Class<?>> resolveInSiblingLoader() throws Exception {
+    ClassLoader platformLoader = ClassLoader.getSystemClassLoader().getParent();
+    Class<?> isolated = new IsolatingClassLoader(SelfList.class, platformLoader).loadClass(SelfList.class.getName());
+    assertTrue(isolated != SelfList.class);
+    assertEquals(TypeResolver.resolveRawArguments(List.class, isolated), new Class<?>[] { isolated });
+    return new WeakReference<Class<?>>(isolated);
+  }
+
+  public void shouldReleaseOwnLoaderAfterResolvingAgainstJdkClasses() throws Exception {
+    WeakReference<ClassLoader> ref = resolveJdkClassesFromIsolatedLoader();
+
+    for (int i = 0; i < 20 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertNull(ref.get());
+  }
+
+  /**
+   * Resolves against JDK classes through a copy of TypeResolver that is defined by its own loader.
+   */
+  private static WeakReference<ClassLoader> resolveJdkClassesFromIsolatedLoader() throws Exception {
+    URL classes = TypeResolver.class.getProtectionDomain().getCodeSource().getLocation();
+    ClassLoader loader = new URLClassLoader(new URL[] { classes }, ClassLoader.getSystemClassLoader().getParent());
+    Class<?> resolver = loader.loadClass(TypeResolver.class.getName());
+    assertTrue(resolver != TypeResolver.class);
+
+    Method resolveRawArguments = resolver.getMethod("resolveRawArguments", Class.class, Class.class);
+    Method resolveRawArgument = resolver.getMethod("resolveRawArgument", Class.class, Class.class);
+    resolveRawArguments.invoke(null, List.class, ArrayList.class);
+    assertEquals(resolveRawArgument.invoke(null, Comparable.class, String.class), String.class);
+    return new WeakReference<ClassLoader>(loader);
+  }
+
+  private static WeakReference<Class<?>> resolveInIsolatedLoader() throws Exception {
+    Class<?> isolated = new IsolatingClassLoader(StringList.class).loadClass(StringList.class.getName());
+    assertTrue(isolated != StringList.class);
+    assertEquals(TypeResolver.resolveRawArguments(List.class, isolated), new Class<?>[] { String.class });
+    return new WeakReference<Class<?>>(isolated);
+  }
+}
@@ -0,0 +1,75 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+@Test
+public class GenericTypeCacheTest {
+  static class Local {
+  }
+
+  static class Fields {
+    List<String> strings;
+    Map<String, ? extends Local> locals;
+    List<Local>[] localLists;
+  }
+
+  static Type typeOf(String field) throws Exception {
+    return Fields.class.getDeclaredField(field).getGenericType();
+  }
+
+  public void shouldCacheVisibleTypes() throws Exception {
+    GenericTypeCache<Object> cache = new GenericTypeCache<Object>();
+    Object value = new Object();
+
+    assertSame(cache.publish(Fields.class, typeOf("locals"), value), value);
+    assertSame(cache.publish(Fields.class, typeOf("locals"), new Object()), value);
+    assertSame(cache.get(typeOf("locals")), value);
+  }
+
+  public void shouldNotCacheTypesReferringToClassesOfOtherLoaders() throws Exception {
+    GenericTypeCache<Object> cache = new GenericTypeCache<Object>();
+
+    // Local is not visible from the bootstrap loader that defines ArrayList
+    cache.publish(ArrayList.class, typeOf("locals"), new Object());
+    cache.publish(ArrayList.class, typeOf("localLists"), new Object());
+    assertNull(cache.get(typeOf("locals")));
+    assertNull(cache.get(typeOf("localLists")));
+
+    cache.publish(ArrayList.class, typeOf("strings"), new Object());
+    assertEquals(cache.size(), 1);
+  }
+
+  public void shouldNotCacheTypesOfChildLoaders() throws Exception {
+    Class<?> isolated = new ClassCacheTest.IsolatingClassLoader(ClassCacheTest.StringList.class)
+        .loadClass(ClassCacheTest.StringList.class.getName());
+
+    assertFalse(GenericTypeCache.isVisible(isolated, Local.class.getClassLoader()));
+    assertFalse(GenericTypeCache.isVisible(new SimpleParameterizedType(List.class, null, new Type[] { isolated }),
+        Local.class.getClassLoader()));
+    assertTrue(GenericTypeCache.isVisible(typeOf("locals"), isolated.getClassLoader()));
+    assertTrue(GenericTypeCache.isVisible(List.class.getTypeParameters()[0], null));
+  }
+
+  public void shouldBoundCachedTypes() {
+    GenericTypeCache<Object> cache = new GenericTypeCache<Object>();
+    for (int i = 1; i <= GenericTypeCache.MAXIMUM_SIZE + 1; i++)
+      cache.publish(Local.class, Array.newInstance(Local.class, new int[i]).getClass(), new Object());
+
+    assertEquals(cache.size(), GenericTypeCache.MAXIMUM_SIZE);
+    Object value = new Object();
+    assertSame(cache.publish(Local.class, String.class, value), value);
+    assertNull(cache.get(String.class));
+  }
+}
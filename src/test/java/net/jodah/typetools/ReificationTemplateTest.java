@@ -0,0 +1,81 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+@Test
+public class ReificationTemplateTest {
+  static class Repository<ID, T, E extends Enum<E>> {
+    public Map<ID, List<T>> index;
+    public Map<List<String>, List<T>> partlyConstant;
+    public Map<String, List<Integer>> constant;
+    public List<? extends T> wildcard;
+    public T[] array;
+    public E value;
+    public Map<Enum<E>, List<T>> selfReferential;
+    public Comparator<? super T> comparator;
+  }
+
+  enum Color {
+  }
+
+  static class StringRepository<E extends Enum<E>> extends Repository<Long, String, E> {
+  }
+
+  static class ColorRepository extends StringRepository<Color> {
+  }
+
+  static Type typeOf(String field) throws Exception {
+    return Repository.class.getField(field).getGenericType();
+  }
+
+  public void shouldReifyLikeTypeResolver() throws Exception {
+    for (String field : new String[] { "index", "partlyConstant", "constant", "wildcard", "array" }) {
+      ReificationTemplate template = TypeResolver.reificationTemplate(typeOf(field));
+      for (Class<?> context : new Class<?>[] { Repository.class, StringRepository.class, ColorRepository.class }) {
+        assertSame(template.reify(context), TypeResolver.reify(typeOf(field), context), field);
+        assertSame(template.reify(TypeResolver.context(context)), TypeResolver.reify(typeOf(field), context), field);
+      }
+    }
+  }
+
+  public void shouldShareConstantParts() throws Exception {
+    ReificationTemplate template = TypeResolver.reificationTemplate(typeOf("partlyConstant"));
+    ParameterizedType first = (ParameterizedType) template.reify(Repository.class);
+    ParameterizedType second = (ParameterizedType) template.reify(ColorRepository.class);
+
+    assertSame(first.getActualTypeArguments()[0], second.getActualTypeArguments()[0]);
+    assertSame(TypeResolver.reificationTemplate(typeOf("constant")).reify(ColorRepository.class),
+        TypeResolver.reify(typeOf("constant")));
+  }
+
+  public void shouldReifySelfReferentialTypes() throws Exception {
+    ReificationTemplate template = TypeResolver.reificationTemplate(typeOf("selfReferential"));
+    assertEquals(TypeResolver.reificationTemplate(typeOf("value")).reify(Repository.class),
+        TypeResolver.reify(typeOf("value"), Repository.class));
+
+    for (Class<?> context : new Class<?>[] { Repository.class, StringRepository.class, ColorRepository.class }) {
+      Type reified = template.reify(context);
+      assertEquals(reified, TypeResolver.reify(typeOf("selfReferential"), context));
+      assertEquals(reified.toString(), TypeResolver.reify(typeOf("selfReferential"), context).toString());
+    }
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void shouldThrowWhenReifyingTypesThatCannotBeReified() throws Exception {
+    TypeResolver.reificationTemplate(typeOf("comparator")).reify(ColorRepository.class);
+  }
+
+  public void shouldReifyNull() {
+    assertNull(TypeResolver.reificationTemplate(null).reify(ColorRepository.class));
+  }
+}
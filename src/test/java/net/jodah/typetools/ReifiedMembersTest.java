@@ -0,0 +1,121 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+@Test
+public class ReifiedMembersTest {
+  interface Source<T> {
+    T get();
+  }
+
+  static class Holder<T> implements Source<T> {
+    T value;
+    List<T> values;
+
+    @Override
+    public T get() {
+      return value;
+    }
+
+    public void set(T value) {
+      this.value = value;
+    }
+
+    public void sort(Comparator<? super T> comparator) {
+    }
+  }
+
+  static class StringHolder extends Holder<String> {
+    Map<String, List<Integer>> index;
+
+    @Override
+    public String get() {
+      return "";
+    }
+  }
+
+  @AfterMethod
+  protected void enableCache() {
+    TypeResolver.enableCache();
+  }
+
+  public void shouldReifyInheritedMembers() throws Exception {
+    ReifiedMembers members = TypeResolver.reifyMembers(StringHolder.class);
+    Field values = Holder.class.getDeclaredField("values");
+
+    assertSame(members.getType(), StringHolder.class);
+    assertEquals(members.getFieldType(Holder.class.getDeclaredField("value")), String.class);
+    assertSame(members.getFieldType(values), TypeResolver.reify(values.getGenericType(), StringHolder.class));
+    assertEquals(members.getFieldType(StringHolder.class.getDeclaredField("index")).toString(),
+        "java.util.Map<java.lang.String, java.util.List<java.lang.Integer>>");
+    assertEquals(members.getReturnType(Holder.class.getMethod("get")), String.class);
+    assertEquals(members.getReturnType(Source.class.getMethod("get")), String.class);
+    assertEquals(members.getParameterTypes(Holder.class.getMethod("set", Object.class)),
+        Collections.<Type>singletonList(String.class));
+    assertEquals(members.getParameterTypes(Holder.class.getMethod("get")), Collections.<Type>emptyList());
+  }
+
+  public void shouldExcludeSyntheticMembers() {
+    for (Method method : TypeResolver.reifyMembers(StringHolder.class).getReturnTypes().keySet())
+      assertFalse(method.isSynthetic(), method.toString());
+  }
+
+  public void shouldResolveRawClassesOfTypesThatCannotBeReified() throws Exception {
+    ReifiedMembers members = TypeResolver.reifyMembers(StringHolder.class);
+
+    assertEquals(members.getParameterTypes(Holder.class.getMethod("sort", Comparator.class)),
+        Collections.<Type>singletonList(Comparator.class));
+  }
+
+  public void shouldCacheModels() {
+    TypeResolver.enableCache();
+    assertSame(TypeResolver.reifyMembers(StringHolder.class), TypeResolver.reifyMembers(StringHolder.class));
+
+    TypeResolver.disableCache();
+    assertNotSame(TypeResolver.reifyMembers(StringHolder.class), TypeResolver.reifyMembers(StringHolder.class));
+  }
+
+  public void shouldReifyMembersInParallel() throws Exception {
+    List<Class<?>> types = Arrays.<Class<?>>asList(StringHolder.class, Holder.class, StringHolder.class);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Map<Class<?>, ReifiedMembers> members = TypeResolver.reifyMembers(types, executor);
+
+      assertEquals(members.keySet(), Arrays.asList(StringHolder.class, Holder.class));
+      assertSame(members.get(StringHolder.class), TypeResolver.reifyMembers(StringHolder.class));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  public void shouldReifyMembersOnForkJoinPoolFromWorker() throws Exception {
+    final ForkJoinPool pool = new ForkJoinPool(1);
+    try {
+      Map<Class<?>, ReifiedMembers> members = pool.submit(() -> TypeResolver
+          .reifyMembers(Arrays.<Class<?>>asList(StringHolder.class, Holder.class), pool)).get();
+
+      assertTrue(members.containsKey(Holder.class));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+@Test
+public class ReifiedParameterizedTypeTest {
+  static class Fixture<T, E extends Enum<E>> {
+    public List<T> generic;
+    public List<String> strings;
+    public List<Integer> integers;
+    public Map<String, List<String>> nested;
+    public Map<T, List<T>> genericNested;
+    public E value;
+  }
+
+  static class CyclicFixture<C extends Map<List<C>, String>> {
+    public C value;
+    public Map<List<String>, String> declared;
+  }
+
+  static class StringFixture extends Fixture<String, Thread.State> {
+  }
+
+  static Type typeOf(String field) throws Exception {
+    return Fixture.class.getField(field).getGenericType();
+  }
+
+  public void shouldEqualJdkParameterizedType() throws Exception {
+    Type reified = TypeResolver.reify(typeOf("generic"), StringFixture.class);
+    Type declared = typeOf("strings");
+
+    assertEquals(reified, declared);
+    assertEquals(declared, reified);
+    assertEquals(reified.hashCode(), declared.hashCode());
+  }
+
+  public void shouldEqualNestedJdkParameterizedType() throws Exception {
+    Type reified = TypeResolver.reify(typeOf("genericNested"), StringFixture.class);
+    Type declared = typeOf("nested");
+
+    assertEquals(reified, declared);
+    assertEquals(declared, reified);
+    assertEquals(reified.hashCode(), declared.hashCode());
+  }
+
+  public void shouldDistinguishClassArguments() throws Exception {
+    Type strings = TypeResolver.reify(typeOf("strings"));
+    Type integers = TypeResolver.reify(typeOf("integers"));
+
+    assertNotEquals(strings, integers);
+    assertNotEquals(strings.hashCode(), integers.hashCode());
+  }
+
+  public void shouldBeUsableAsKey() throws Exception {
+    Map<Type, String> map = new HashMap<Type, String>();
+    map.put(typeOf("strings"), "strings");
+
+    assertEquals(map.get(TypeResolver.reify(typeOf("generic"), StringFixture.class)), "strings");
+  }
+
+  public void shouldNotEqualJdkTypeWhenSelfReferential() throws Exception {
+    Type reified = TypeResolver.reify(typeOf("value"));
+    Type declared = Enum.class.getTypeParameters()[0].getBounds()[0];
+
+    assertFalse(reified.equals(declared));
+    assertFalse(declared.equals(reified));
+  }
+
+  public void shouldCompareCyclicTypesWithSeveralArguments() throws Exception {
+    Type declared = CyclicFixture.class.getField("value").getGenericType();
+    Type reified = TypeResolver.reify(declared);
+    Type other = TypeResolver.reify(declared);
+
+    assertNotSame(reified, other);
+    assertEquals(reified, other);
+    assertEquals(reified.hashCode(), other.hashCode());
+    assertFalse(reified.equals(CyclicFixture.class.getField("declared").getGenericType()));
+  }
+
+  public void shouldCacheToString() throws Exception {
+    Type reified = TypeResolver.reify(typeOf("nested"));
+
+    assertEquals(reified.toString(), typeOf("nested").toString());
+    assertSame(reified.toString(), reified.toString());
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void shouldNotModifyFrozenType() throws Exception {
+    ReifiedParameterizedType reified = (ReifiedParameterizedType) TypeResolver.reify(typeOf("strings"));
+    reified.addReifiedTypeArgument(Integer.class);
+  }
+}
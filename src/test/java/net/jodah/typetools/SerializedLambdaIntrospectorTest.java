@@ -0,0 +1,63 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.Serializable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.testng.annotations.Test;
+
+@Test
+public class SerializedLambdaIntrospectorTest {
+  interface SerializableFunction<T, R> extends Function<T, R>, Serializable {
+  }
+
+  interface SerializableSupplier<T> extends Supplier<T>, Serializable {
+  }
+
+  static class Replacing implements Serializable {
+    static int replacements;
+
+    Object writeReplace() {
+      replacements++;
+      return this;
+    }
+  }
+
+  public void shouldResolveMethodRef() throws Exception {
+    SerializableFunction<String, Integer> fn = Integer::parseInt;
+    assertEquals(SerializedLambdaIntrospector.probe().getMemberRef(fn.getClass()),
+        Integer.class.getMethod("parseInt", String.class));
+  }
+
+  public void shouldResolveConstructorRef() throws Exception {
+    SerializableFunction<String, StringBuilder> fn = StringBuilder::new;
+    assertEquals(SerializedLambdaIntrospector.probe().getMemberRef(fn.getClass()),
+        StringBuilder.class.getConstructor(String.class));
+  }
+
+  public void shouldResolveCapturingLambda() throws Exception {
+    final long[] captured = { 1 };
+    SerializableFunction<int[], Long> fn = a -> a.length + captured[0];
+    assertEquals(SerializedLambdaIntrospector.probe().getMemberRef(fn.getClass()).getDeclaringClass(),
+        SerializedLambdaIntrospectorTest.class);
+  }
+
+  public void shouldSkipNonSerializableLambdas() throws Exception {
+    Supplier<String> supplier = () -> "";
+    assertNull(SerializedLambdaIntrospector.probe().getMemberRef(supplier.getClass()));
+  }
+
+  public void shouldNotCallWriteReplaceOfNonLambdas() throws Exception {
+    assertNull(SerializedLambdaIntrospector.probe().getMemberRef(Replacing.class));
+    assertEquals(Replacing.replacements, 0);
+  }
+
+  public void shouldResolveArgumentsViaSerializedLambda() {
+    SerializableSupplier<Double> supplier = () -> 1.0;
+    assertEquals(TypeResolver.resolveRawArguments(Supplier.class, supplier.getClass()),
+        new Class<?>[] { Double.class });
+  }
+}
@@ -0,0 +1,121 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import net.jodah.typetools.TypeResolver.Unknown;
+
+@Test
+public class TypeContextTest {
+  static class Repository<ID, E> {
+    public ID id;
+    public Map<ID, List<E>> index;
+    public E[] entities;
+  }
+
+  static class StringRepository<E> extends Repository<String, E> {
+  }
+
+  static class PersonRepository extends StringRepository<Integer> {
+  }
+
+  static Type typeOf(String field) throws Exception {
+    return Repository.class.getField(field).getGenericType();
+  }
+
+  @AfterMethod
+  protected void enableCache() {
+    TypeResolver.enableCache();
+  }
+
+  public void shouldResolveLikeTypeResolver() throws Exception {
+    TypeContext context = TypeResolver.context(PersonRepository.class);
+
+    assertSame(context.getType(), PersonRepository.class);
+    for (String field : new String[] { "id", "index", "entities" }) {
+      Type type = typeOf(field);
+      assertSame(context.reify(type), TypeResolver.reify(type, PersonRepository.class));
+      assertEquals(context.resolveRawClass(type), TypeResolver.resolveRawClass(type, PersonRepository.class));
+      assertEquals(context.resolveRawArguments(type), TypeResolver.resolveRawArguments(type, PersonRepository.class));
+    }
+
+    assertEquals(context.reify(typeOf("index")).toString(),
+        "java.util.Map<java.lang.String, java.util.List<java.lang.Integer>>");
+    assertEquals(context.resolveRawClass(typeOf("entities")), Integer[].class);
+    assertEquals(context.resolveRawArguments(Repository.class), new Class<?>[] { String.class, Integer.class });
+    assertEquals(context.resolveRawArgument(StringRepository.class), Integer.class);
+    assertNull(context.resolveRawArguments(null));
+  }
+
+  public void shouldResolveUnboundVariables() throws Exception {
+    TypeContext context = TypeResolver.context(StringRepository.class);
+
+    assertEquals(context.resolveRawArguments(Repository.class), new Class<?>[] { String.class, Unknown.class });
+    assertSame(context.reify(typeOf("index")), TypeResolver.reify(typeOf("index"), StringRepository.class));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldThrowOnUnexpectedArgumentCount() {
+    TypeResolver.context(PersonRepository.class).resolveRawArgument(Repository.class);
+  }
+
+  public void shouldKeepInformationWhenCacheIsDisabled() throws Exception {
+    TypeContext context = TypeResolver.context(PersonRepository.class);
+    TypeResolver.disableCache();
+
+    assertEquals(context.resolveRawClass(typeOf("id")), String.class);
+  }
+
+  public void shouldResolveAgainstParameterizedType() throws Exception {
+    ParameterizedType type = TypeResolver.parameterize(StringRepository.class, Integer.class);
+    assertEquals(type, PersonRepository.class.getGenericSuperclass());
+    assertEquals(PersonRepository.class.getGenericSuperclass(), type);
+    assertEquals(type.hashCode(), PersonRepository.class.getGenericSuperclass().hashCode());
+    assertEquals(type.toString(), PersonRepository.class.getGenericSuperclass().toString());
+
+    for (boolean cache : new boolean[] { true, false }) {
+      if (!cache)
+        TypeResolver.disableCache();
+      TypeContext context = TypeResolver.context(type);
+      TypeContext subclassContext = TypeResolver.context(PersonRepository.class);
+
+      assertSame(context.getType(), StringRepository.class);
+      assertSame(context.getGenericType(), type);
+      for (String field : new String[] { "id", "index", "entities" }) {
+        assertEquals(context.reify(typeOf(field)), subclassContext.reify(typeOf(field)));
+        assertEquals(context.resolveRawClass(typeOf(field)), subclassContext.resolveRawClass(typeOf(field)));
+      }
+      assertEquals(context.resolveRawArguments(Repository.class), new Class<?>[] { String.class, Integer.class });
+    }
+  }
+
+  public void shouldResolveAgainstParameterizedTypeOfDeclaringClass() throws Exception {
+    TypeContext context = TypeResolver.context(TypeResolver.parameterize(Repository.class, Long.class,
+        TypeResolver.parameterize(List.class, String.class)));
+
+    assertEquals(context.reify(typeOf("index")).toString(),
+        "java.util.Map<java.lang.Long, java.util.List<java.util.List<java.lang.String>>>");
+    assertEquals(context.resolveRawClass(typeOf("id")), Long.class);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectParameterizingWithWrongNumberOfArguments() {
+    TypeResolver.parameterize(Repository.class, Long.class);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectLambdaClasses() {
+    Function<String, Integer> fn = str -> Integer.valueOf(str);
+    TypeResolver.context(fn.getClass());
+  }
+}
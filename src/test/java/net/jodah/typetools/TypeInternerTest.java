@@ -0,0 +1,72 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+@Test
+public class TypeInternerTest {
+  static class Fixture<E extends Enum<E>> {
+    public Map<List<String>, List<String>> map;
+    public List<String> list;
+    public E value;
+  }
+
+  static Type typeOf(String field) throws Exception {
+    return Fixture.class.getField(field).getGenericType();
+  }
+
+  public void shouldReturnCanonicalInstance() throws Exception {
+    TypeInterner interner = new TypeInterner();
+    Type first = interner.intern(TypeResolver.reify(typeOf("list")));
+    Type second = interner.intern(TypeResolver.reify(typeOf("list")));
+
+    assertSame(second, first);
+    assertEquals(first.toString(), "java.util.List<java.lang.String>");
+  }
+
+  public void shouldShareEqualArguments() throws Exception {
+    TypeInterner interner = new TypeInterner();
+    Type list = interner.intern(TypeResolver.reify(typeOf("list")));
+    ParameterizedType map = (ParameterizedType) interner.intern(TypeResolver.reify(typeOf("map")));
+
+    assertSame(map.getActualTypeArguments()[0], list);
+    assertSame(map.getActualTypeArguments()[1], list);
+  }
+
+  public void shouldNotInternSelfReferentialTypes() throws Exception {
+    TypeInterner interner = new TypeInterner();
+    Type first = interner.intern(TypeResolver.reify(typeOf("value")));
+    Type second = interner.intern(TypeResolver.reify(typeOf("value")));
+
+    assertNotSame(second, first);
+    assertEquals(second, first);
+    assertEquals(interner.size(), 0);
+  }
+
+  public void shouldNotRetainUnreferencedTypes() throws Exception {
+    TypeInterner interner = new TypeInterner();
+    // Reified without the resolver's interner, whose canonical instances may be held by other tests' caches
+    Type reified = TypeResolver.reify(typeOf("map"), TypeVariableMap.EMPTY, new TypeResolver.VisitedTypes());
+    WeakReference<Type> reference = new WeakReference<Type>(interner.intern(reified));
+    reified = null;
+    assertEquals(interner.size(), 2);
+
+    for (int i = 0; i < 10 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertNull(reference.get());
+    assertEquals(interner.size(), 0);
+  }
+}
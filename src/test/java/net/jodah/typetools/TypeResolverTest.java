@@ -2,6 +2,7 @@ package net.jodah.typetools;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 
 import java.io.Closeable;
 import java.io.Serializable;
@@ -11,6 +12,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -76,6 +78,54 @@ public class TypeResolverTest extends AbstractTypeResolverTest {
   static class SomeEntity extends Entity<Long> {
   }
 
+  interface Keyed<K> {
+  }
+
+  static class KeyedBase<K, V> implements Keyed<K> {
+  }
+
+  static class KeyedMiddle<V> extends KeyedBase<String, V> {
+  }
+
+  static class IntegerKeyed extends KeyedMiddle<Integer> {
+  }
+
+  static class LongKeyed extends KeyedMiddle<Long> {
+  }
+
+  static class NumberKeyed<N extends Number> extends KeyedMiddle<N> {
+  }
+
+  public void shouldResolveArgumentsForSubclassesOfResolvedSuperclass() {
+    assertEquals(TypeResolver.resolveRawArguments(KeyedBase.class, KeyedMiddle.class),
+        new Class<?>[] { String.class, Unknown.class });
+    assertEquals(TypeResolver.resolveRawArguments(KeyedBase.class, IntegerKeyed.class),
+        new Class<?>[] { String.class, Integer.class });
+    assertEquals(TypeResolver.resolveRawArguments(KeyedBase.class, LongKeyed.class),
+        new Class<?>[] { String.class, Long.class });
+    assertEquals(TypeResolver.resolveRawArguments(KeyedBase.class, NumberKeyed.class),
+        new Class<?>[] { String.class, Number.class });
+    assertEquals(TypeResolver.resolveRawArgument(Keyed.class, LongKeyed.class), String.class);
+  }
+
+  interface DiamondTop<T> {
+  }
+
+  interface DiamondLeft<L> extends DiamondTop<L> {
+  }
+
+  interface DiamondRight<R> extends DiamondTop<R>, Keyed<R> {
+  }
+
+  static class DiamondBottom implements DiamondLeft<String>, DiamondRight<String> {
+  }
+
+  public void shouldResolveArgumentsThroughDiamond() {
+    assertEquals(TypeResolver.resolveRawArgument(DiamondTop.class, DiamondBottom.class), String.class);
+    assertEquals(TypeResolver.resolveRawArgument(Keyed.class, DiamondBottom.class), String.class);
+    assertEquals(TypeResolver.resolveRawArgument(DiamondTop.class, DiamondRight.class), Unknown.class);
+  }
+
   public void shouldResolveClass() throws Exception {
     Field field = Entity.class.getDeclaredField("id");
     assertEquals(TypeResolver.resolveRawClass(field.getGenericType(), SomeEntity.class), Long.class);
@@ -277,6 +327,54 @@ public class TypeResolverTest extends AbstractTypeResolverTest {
     assert type == Number.class;
   }
 
+  public void shouldResolveArgumentListForIRepoFromRepoImplA() {
+    List<Class<?>> types = TypeResolver.resolveRawArgumentList(IRepo.class, RepoImplA.class);
+    assertEquals(types, Arrays.<Class<?>>asList(Map.class, ArrayList.class, Vector.class, HashSet.class));
+    if (cacheEnabled)
+      assertSame(TypeResolver.resolveRawArgumentList(IRepo.class, RepoImplA.class), types);
+    assertNull(TypeResolver.resolveRawArgumentList(Object.class, String.class));
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void shouldNotModifyArgumentList() {
+    TypeResolver.resolveRawArgumentList(IIRepo.class, SimpleRepo.class).set(0, Object.class);
+  }
+
+  public void shouldResolveGenericTypeRepeatedly() {
+    Type type = TypeResolver.resolveGenericType(IIRepo.class, RepoImplA.class);
+    assertEquals(TypeResolver.resolveGenericType(IIRepo.class, RepoImplA.class), type);
+    assertEquals(((ParameterizedType) type).getRawType(), IIRepo.class);
+    assertNull(TypeResolver.resolveGenericType(Baz.class, RepoImplA.class));
+    assertNull(TypeResolver.resolveGenericType(Baz.class, RepoImplA.class));
+  }
+
+  public void shouldIndexAllGenericSupertypes() {
+    Map<Class<?>, Type> supertypes = TypeResolver.allGenericSupertypes(RepoImplA.class);
+    assertEquals(new ArrayList<Class<?>>(supertypes.keySet()), Arrays.<Class<?>>asList(RepoImplA.class,
+        RepoImplB.class, RepoImplC.class, IRepo.class, Serializable.class, IIRepo.class));
+    assertEquals(supertypes.get(RepoImplA.class), RepoImplA.class);
+    assertEquals(supertypes.get(Serializable.class), Serializable.class);
+
+    // Arguments are bound in the context of RepoImplA, whose own type variables are kept
+    TypeVariable<?> a2 = RepoImplA.class.getTypeParameters()[1];
+    Type[] arguments = ((ParameterizedType) supertypes.get(IRepo.class)).getActualTypeArguments();
+    assertEquals(arguments[0], a2);
+    assertEquals(((ParameterizedType) arguments[1]).getRawType(), ArrayList.class);
+    assertEquals(((ParameterizedType) arguments[2]).getRawType(), Vector.class);
+    assertEquals(((ParameterizedType) arguments[3]).getRawType(), HashSet.class);
+    arguments = ((ParameterizedType) supertypes.get(IIRepo.class)).getActualTypeArguments();
+    assertEquals(arguments[0], a2);
+    assertEquals(((ParameterizedType) arguments[1]).getRawType(), Vector.class);
+
+    if (cacheEnabled)
+      assertSame(TypeResolver.allGenericSupertypes(RepoImplA.class), supertypes);
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void shouldNotModifyGenericSupertypes() {
+    TypeResolver.allGenericSupertypes(Foo.class).clear();
+  }
+
   public void shouldReturnNullOnResolveArgumentsForNonParameterizedType() {
     assertNull(TypeResolver.resolveRawArguments(Object.class, String.class));
   }
@@ -345,6 +443,13 @@ public class TypeResolverTest extends AbstractTypeResolverTest {
 
   static abstract class RecursiveLong<T extends List<Set<T>>> extends RecursiveLongBase<T> {}
 
+  public void shouldReifyToSameInstance() throws Exception {
+    Type type = WildcardWithBoundFixture.class.getMethod("collect").getGenericReturnType();
+
+    assertSame(TypeResolver.reify(type, WildcardWithBoundFixture.class),
+        TypeResolver.reify(type, WildcardWithBoundFixture.class));
+  }
+
   public void shouldReifyRecursiveBound() {
     Type result = TypeResolver.reify(EnumBound.class, SubEnumBound.class);
     assert result instanceof ParameterizedType;
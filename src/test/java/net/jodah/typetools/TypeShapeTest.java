@@ -0,0 +1,89 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+@Test
+public class TypeShapeTest {
+  static class Codec<K, V, E extends Enum<E>> {
+    public Map<K, List<Optional<V>>> nested;
+    public V[] array;
+    public List<int[][]> matrix;
+    public E value;
+    public K key;
+  }
+
+  enum Color {
+  }
+
+  static class LongCodec extends Codec<String, Long, Color> {
+  }
+
+  @AfterMethod
+  protected void enableCache() {
+    TypeResolver.enableCache();
+  }
+
+  static Type typeOf(String field) throws Exception {
+    return Codec.class.getField(field).getGenericType();
+  }
+
+  public void shouldEncodeNestedArgumentsInPreOrder() throws Exception {
+    TypeShape shape = TypeResolver.resolveTypeShape(typeOf("nested"), LongCodec.class);
+
+    assertEquals(shape.getRawClasses(),
+        new Class<?>[] { Map.class, String.class, List.class, Optional.class, Long.class });
+    assertEquals(shape.getArities(), new int[] { 2, 0, 1, 1, 0 });
+    assertEquals(shape.size(), 5);
+    assertEquals(shape.skip(0), 5);
+    assertEquals(shape.skip(1), 2);
+    assertEquals(shape.skip(2), 5);
+    assertEquals(shape.toString(),
+        "java.util.Map<java.lang.String, java.util.List<java.util.Optional<java.lang.Long>>>");
+  }
+
+  public void shouldEncodeArraysAndClasses() throws Exception {
+    TypeShape array = TypeResolver.resolveTypeShape(typeOf("array"), LongCodec.class);
+    TypeShape matrix = TypeResolver.resolveTypeShape(typeOf("matrix"), LongCodec.class);
+    TypeShape key = TypeResolver.resolveTypeShape(typeOf("key"), LongCodec.class);
+
+    assertEquals(array.getRawClasses(), new Class<?>[] { Long[].class });
+    assertEquals(array.getArities(), new int[] { 0 });
+    assertEquals(array.toString(), "java.lang.Long[]");
+    assertEquals(matrix.getRawClasses(), new Class<?>[] { List.class, int[][].class });
+    assertEquals(matrix.getArities(), new int[] { 1, 0 });
+    assertEquals(matrix.toString(), "java.util.List<int[][]>");
+    assertEquals(key.getRawClass(0), String.class);
+    assertEquals(key.getArity(0), 0);
+    assertNull(TypeResolver.resolveTypeShape(null, LongCodec.class));
+  }
+
+  public void shouldEncodeCyclesAsRawClasses() throws Exception {
+    TypeShape shape = TypeResolver.resolveTypeShape(typeOf("value"), Codec.class);
+
+    assertEquals(shape.getRawClasses(), new Class<?>[] { Enum.class, Enum.class });
+    assertEquals(shape.getArities(), new int[] { 1, 0 });
+  }
+
+  public void shouldCacheShapes() throws Exception {
+    TypeResolver.enableCache();
+    TypeShape shape = TypeResolver.resolveTypeShape(typeOf("nested"), LongCodec.class);
+    assertSame(TypeResolver.resolveTypeShape(typeOf("nested"), LongCodec.class), shape);
+
+    TypeResolver.disableCache();
+    TypeShape uncached = TypeResolver.resolveTypeShape(typeOf("nested"), LongCodec.class);
+    assertNotSame(uncached, shape);
+    assertEquals(uncached, shape);
+    assertEquals(uncached.hashCode(), shape.hashCode());
+  }
+}
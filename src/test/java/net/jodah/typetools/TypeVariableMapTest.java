@@ -0,0 +1,92 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+@Test
+public class TypeVariableMapTest {
+  static class Generic {
+    public <T> T method() {
+      return null;
+    }
+  }
+
+  static class Wide<A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, P, Q, R, S, T> {
+  }
+
+  public void shouldPutAndGet() {
+    TypeVariable<?>[] variables = Map.class.getTypeParameters();
+    TypeVariableMap map = new TypeVariableMap();
+    map.put(variables[0], String.class);
+    map.put(variables[1], Integer.class);
+
+    assertEquals(map.get(variables[0]), String.class);
+    assertEquals(map.get(variables[1]), Integer.class);
+    assertNull(map.get(Comparable.class.getTypeParameters()[0]));
+  }
+
+  public void shouldReplaceExistingEntries() {
+    TypeVariable<?> variable = Comparable.class.getTypeParameters()[0];
+    TypeVariableMap map = new TypeVariableMap();
+    map.put(variable, String.class);
+    map.put(variable, Long.class);
+
+    assertEquals(map.size(), 1);
+    assertEquals(map.get(variable), Long.class);
+  }
+
+  public void shouldGetByEqualVariableOfDistinctInstance() throws Exception {
+    Type variable = Generic.class.getMethod("method").getGenericReturnType();
+    Type copy = Generic.class.getMethod("method").getGenericReturnType();
+    assertNotSame(variable, copy);
+
+    TypeVariableMap map = new TypeVariableMap();
+    map.put((TypeVariable<?>) variable, String.class);
+    assertEquals(map.get((TypeVariable<?>) copy), String.class);
+  }
+
+  public void shouldCompact() {
+    TypeVariableMap map = new TypeVariableMap();
+    assertSame(map.compact(), TypeVariableMap.EMPTY);
+
+    TypeVariable<?>[] variables = Map.class.getTypeParameters();
+    map.put(variables[0], String.class);
+    map.put(variables[1], Integer.class);
+    map = map.compact();
+    assertEquals(map.size(), 2);
+    assertEquals(map.get(variables[1]), Integer.class);
+  }
+
+  public void shouldPutAndGetWhenIndexed() throws Exception {
+    TypeVariable<?>[] variables = Wide.class.getTypeParameters();
+    assertTrue(variables.length > TypeVariableMap.INDEX_THRESHOLD * 2);
+    TypeVariableMap map = new TypeVariableMap();
+    for (int i = 0; i < variables.length; i++)
+      map.put(variables[i], i % 2 == 0 ? String.class : Integer.class);
+    map.put(variables[3], Long.class);
+
+    Type variable = Generic.class.getMethod("method").getGenericReturnType();
+    map.put((TypeVariable<?>) variable, Short.class);
+    map = map.copy(0).compact();
+
+    assertEquals(map.size(), variables.length + 1);
+    for (int i = 0; i < variables.length; i++)
+      assertEquals(map.get(variables[i]), i == 3 ? Long.class : i % 2 == 0 ? String.class : Integer.class);
+    assertEquals(map.get((TypeVariable<?>) Generic.class.getMethod("method").getGenericReturnType()), Short.class);
+    assertNull(map.get(Comparable.class.getTypeParameters()[0]));
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void shouldNotModifyEmptyMap() {
+    TypeVariableMap.EMPTY.put(Comparable.class.getTypeParameters()[0], String.class);
+  }
+}
@@ -0,0 +1,162 @@
+package net.jodah.typetools;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+@Test
+public class TypeVisitorTest {
+  static class Repository<ID, T, E extends Enum<E>> {
+    public Map<ID, List<T>> index;
+    public List<? extends T> wildcard;
+    public T[] array;
+    public String[] plainArray;
+    public E value;
+    public Map<Enum<E>, List<T>> selfReferential;
+    public Map<E, E> sharedSelfReferential;
+    public Comparator<? super T> comparator;
+  }
+
+  enum Color {
+  }
+
+  static class ColorRepository extends Repository<Long, String, Color> {
+  }
+
+  /** Renders visited nodes in the same form as {@link #render(Type, Map)} renders reified types. */
+  static class RenderingVisitor implements TypeVisitor {
+    final StringBuilder sb = new StringBuilder();
+    final List<Integer> argumentCounts = new ArrayList<Integer>();
+
+    @Override
+    public void visitClass(Class<?> type) {
+      separate();
+      sb.append(type.getName());
+    }
+
+    @Override
+    public void visitArray(Class<?> type) {
+      separate();
+      sb.append(type.getComponentType().getName()).append("[]");
+    }
+
+    @Override
+    public boolean visitParameterizedType(Class<?> rawType, ParameterizedType type) {
+      separate();
+      sb.append(rawType.getName()).append('<');
+      argumentCounts.add(0);
+      return true;
+    }
+
+    @Override
+    public void endParameterizedType(Class<?> rawType, ParameterizedType type) {
+      argumentCounts.remove(argumentCounts.size() - 1);
+      sb.append('>');
+    }
+
+    @Override
+    public void visitCycle(Class<?> rawType, ParameterizedType type) {
+      separate();
+      sb.append("...");
+    }
+
+    private void separate() {
+      int last = argumentCounts.size() - 1;
+      if (last >= 0) {
+        if (argumentCounts.get(last) > 0)
+          sb.append(", ");
+        argumentCounts.set(last, argumentCounts.get(last) + 1);
+      }
+    }
+  }
+
+  static String render(Type type, Map<Type, Boolean> enclosing) {
+    if (type instanceof Class) {
+      Class<?> clazz = (Class<?>) type;
+      return clazz.isArray() ? clazz.getComponentType().getName() + "[]" : clazz.getName();
+    }
+    if (enclosing.containsKey(type))
+      return "...";
+
+    ParameterizedType parameterizedType = (ParameterizedType) type;
+    enclosing.put(type, true);
+    StringBuilder sb = new StringBuilder(((Class<?>) parameterizedType.getRawType()).getName()).append('<');
+    Type[] arguments = parameterizedType.getActualTypeArguments();
+    for (int i = 0; i < arguments.length; i++)
+      sb.append(i == 0 ? "" : ", ").append(render(arguments[i], enclosing));
+    enclosing.remove(type);
+    return sb.append('>').toString();
+  }
+
+  static Type typeOf(String field) throws Exception {
+    return Repository.class.getField(field).getGenericType();
+  }
+
+  static String visit(Type type, Class<?> context) {
+    RenderingVisitor visitor = new RenderingVisitor();
+    TypeResolver.visit(type, context, visitor);
+    return visitor.sb.toString();
+  }
+
+  public void shouldVisitNodesAsReified() throws Exception {
+    for (String field : new String[] { "index", "wildcard", "array", "plainArray", "value", "selfReferential",
+        "sharedSelfReferential" }) {
+      for (Class<?> context : new Class<?>[] { Repository.class, ColorRepository.class }) {
+        Type reified = TypeResolver.reify(typeOf(field), context);
+        assertEquals(visit(typeOf(field), context), render(reified, new IdentityHashMap<Type, Boolean>()), field);
+      }
+    }
+  }
+
+  public void shouldResolveAgainstContext() throws Exception {
+    assertEquals(visit(typeOf("index"), ColorRepository.class),
+        "java.util.Map<java.lang.Long, java.util.List<java.lang.String>>");
+    assertEquals(visit(typeOf("array"), ColorRepository.class), "java.lang.String[]");
+    assertEquals(visit(typeOf("value"), Repository.class), "java.lang.Enum<...>");
+
+    RenderingVisitor visitor = new RenderingVisitor();
+    TypeResolver.context(ColorRepository.class).visit(typeOf("wildcard"), visitor);
+    assertEquals(visitor.sb.toString(), "java.util.List<java.lang.String>");
+  }
+
+  public void shouldWalkSharedSubtreeForEachOccurrence() throws Exception {
+    ParameterizedType reified = (ParameterizedType) TypeResolver.reify(typeOf("sharedSelfReferential"));
+    Type[] arguments = reified.getActualTypeArguments();
+
+    // Reification shares one reified type for both occurrences, which are walked one after the other
+    assertSame(arguments[0], arguments[1]);
+    assertEquals(visit(typeOf("sharedSelfReferential"), Repository.class),
+        "java.util.Map<java.lang.Enum<...>, java.lang.Enum<...>>");
+  }
+
+  public void shouldSkipArguments() throws Exception {
+    RenderingVisitor visitor = new RenderingVisitor() {
+      @Override
+      public boolean visitParameterizedType(Class<?> rawType, ParameterizedType type) {
+        super.visitParameterizedType(rawType, type);
+        return false;
+      }
+    };
+    TypeResolver.visit(typeOf("index"), ColorRepository.class, visitor);
+
+    assertEquals(visitor.sb.toString(), "java.util.Map<>");
+  }
+
+  public void shouldNotVisitNull() {
+    assertEquals(visit(null, ColorRepository.class), "");
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void shouldThrowWhenVisitingTypesThatCannotBeReified() throws Exception {
+    visit(typeOf("comparator"), ColorRepository.class);
+  }
+}
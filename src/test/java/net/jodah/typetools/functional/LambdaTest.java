@@ -1,9 +1,12 @@
 package net.jodah.typetools.functional;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
@@ -14,6 +17,7 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import org.testng.SkipException;
 import org.testng.annotations.Factory;
 import org.testng.annotations.Test;
 
@@ -90,6 +94,11 @@ public class LambdaTest extends AbstractTypeResolverTest {
     }
   }
 
+  interface Marker<T> {
+    default void mark() {
+    }
+  }
+
   @FunctionalInterface
   interface I1<F, T> {
     T apply(F f1, F f2);
@@ -282,6 +291,36 @@ public class LambdaTest extends AbstractTypeResolverTest {
         new Class<?>[] { String.class, Integer.class });
   }
 
+  /**
+   * Asserts that a lambda resolved against one functional interface resolves correctly against another.
+   */
+  public void shouldResolveArgumentsPerFunctionalInterface() {
+    Function<String, Integer> fn = (Function<String, Integer> & Marker<Long>) str -> Integer.valueOf(str);
+    assertEquals(TypeResolver.resolveRawArguments(Marker.class, fn.getClass()), new Class<?>[] { Unknown.class });
+    assertEquals(TypeResolver.resolveRawArguments(Function.class, fn.getClass()),
+        new Class<?>[] { String.class, Integer.class });
+
+    // Mutating a result does not affect subsequent resolutions
+    TypeResolver.resolveRawArguments(Function.class, fn.getClass())[0] = null;
+    assertEquals(TypeResolver.resolveRawArguments(Function.class, fn.getClass())[0], String.class);
+  }
+
+  /**
+   * Asserts that the lambda introspection backend that resolved these lambdas is reported.
+   */
+  public void shouldReportLambdaIntrospector() {
+    TypeResolver.resolveRawArguments(Function.class, ((Function<String, Integer>) Integer::valueOf).getClass());
+    String introspector = TypeResolver.getLambdaIntrospector();
+    if (introspector == null)
+      throw new SkipException("No lambda introspection backend loaded on this JVM");
+
+    // Which backends load depends on the JVM and on whether typetools-agent is installed
+    List<String> backends = Arrays.asList("agent", "serialized-lambda", "constant-pool");
+    for (String name : introspector.split(","))
+      assertTrue(backends.contains(name), introspector);
+    assertTrue(TypeResolver.getLambdaIntrospectorProbeNanos() > 0);
+  }
+
   /**
    * Asserts that lambdas passed into methods can be resolved.
    */